@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engineeditor.common;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.bladecoder.engine.actions.ActionFactory;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.ChapterBundle;
+
+/**
+ * Compiles the '.chapter.json' files of a model folder into '.chapter.bin'
+ * bundles when packaging the game.
+ *
+ * The classes referenced in the chapters (actors, renderers, actions...) are
+ * only checked to exist, so a missing class is detected when packaging
+ * instead of when the chapter is loaded. The bundle stores the class names
+ * and the engine still loads the classes by reflection when the chapter is
+ * read.
+ *
+ * @author rgarcia
+ */
+public class ChapterCompiler {
+
+	/**
+	 * Compiles all the chapters in the folder.
+	 * 
+	 * @return the generated bundles.
+	 */
+	public static List<File> compile(File modelDir) throws IOException {
+		ArrayList<File> bundles = new ArrayList<File>();
+		File[] files = modelDir.listFiles();
+
+		if (files == null)
+			throw new IOException("Model folder not found: " + modelDir.getAbsolutePath());
+
+		for (File f : files) {
+			String name = f.getName();
+
+			if (!name.endsWith(EngineAssetManager.CHAPTER_EXT))
+				continue;
+
+			String chapter = name.substring(0, name.length() - EngineAssetManager.CHAPTER_EXT.length());
+			File bundle = new File(modelDir, chapter + EngineAssetManager.CHAPTER_BUNDLE_EXT);
+
+			compile(f, bundle);
+			bundles.add(bundle);
+
+			EditorLogger.debug("Compiled: " + bundle.getAbsolutePath() + " (" + bundle.length() + " bytes)");
+		}
+
+		return bundles;
+	}
+
+	public static void compile(File chapterFile, File bundleFile) throws IOException {
+		Reader r = new InputStreamReader(new FileInputStream(chapterFile), "UTF-8");
+		JsonValue chapter;
+
+		try {
+			chapter = new JsonReader().parse(r);
+		} finally {
+			StreamUtils.closeQuietly(r);
+		}
+
+		ArrayList<String> errors = new ArrayList<String>();
+		resolveClasses(chapter, new HashSet<String>(), errors);
+
+		if (!errors.isEmpty())
+			throw new IOException("Error compiling " + chapterFile.getName() + ". Classes not found: " + errors);
+
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(bundleFile));
+
+		try {
+			ChapterBundle.write(chapter, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Deletes the bundles in the folder.
+	 */
+	public static void clean(File modelDir) {
+		File[] files = modelDir.listFiles();
+
+		if (files == null)
+			return;
+
+		for (File f : files) {
+			if (f.getName().endsWith(EngineAssetManager.CHAPTER_BUNDLE_EXT))
+				f.delete();
+		}
+	}
+
+	private static void resolveClasses(JsonValue v, HashSet<String> resolved, List<String> errors) {
+		for (JsonValue c = v.child; c != null; c = c.next) {
+			if ("class".equals(c.name) && c.isString()) {
+				String className = c.asString();
+
+				if (resolved.add(className)) {
+					try {
+						Class.forName(className, false, ActionFactory.getActionClassLoader());
+					} catch (ClassNotFoundException e) {
+						errors.add(className);
+					}
+				}
+			} else {
+				resolveClasses(c, resolved, errors);
+			}
+		}
+	}
+
+}
@@ -40,6 +40,7 @@ import com.badlogicgames.packr.PackrConfig.Platform;
 import com.bladecoder.engine.actions.Param.Type;
 import com.bladecoder.engine.util.Config;
 import com.bladecoder.engineeditor.Ctx;
+import com.bladecoder.engineeditor.common.ChapterCompiler;
 import com.bladecoder.engineeditor.common.Message;
 import com.bladecoder.engineeditor.common.RunProccess;
 import com.bladecoder.engineeditor.ui.panels.EditDialog;
@@ -78,8 +79,10 @@ public class PackageDialog extends EditDialog {
 
 	private InputPanel iosSignIdentity;
 	private InputPanel iosProvisioningProfile;
+
+	private InputPanel compileChapters;
 	
-	private InputPanel[] options = new InputPanel[14];
+	private InputPanel[] options = new InputPanel[15];
 
 	@SuppressWarnings("unchecked")
 	public PackageDialog(Skin skin) {
@@ -123,6 +126,10 @@ public class PackageDialog extends EditDialog {
 		iosProvisioningProfile = InputPanelFactory
 				.createInputPanel(skin, "Provisioning Profile", "Empty for auto select.", false);
 
+		compileChapters = InputPanelFactory.createInputPanel(skin, "Compile Chapters",
+				"Packages the chapters in binary format. They load faster and missing action classes are detected when packaging.",
+				Type.BOOLEAN, true, "true");
+
 		options[0] = type;
 		options[1] = os;
 		options[2] = linux64JRE;
@@ -137,6 +144,7 @@ public class PackageDialog extends EditDialog {
 		options[11] = androidKeyAlias;
 		options[12] = iosSignIdentity;
 		options[13] = iosProvisioningProfile;
+		options[14] = compileChapters;
 
 		addInputPanel(arch);
 		addInputPanel(dir);
@@ -262,6 +270,19 @@ public class PackageDialog extends EditDialog {
 	}
 
 	private String packageAdv() throws IOException {
+		File modelDir = new File(Ctx.project.getModelPath());
+
+		if (Boolean.parseBoolean(compileChapters.getText()))
+			ChapterCompiler.compile(modelDir);
+
+		try {
+			return build();
+		} finally {
+			ChapterCompiler.clean(modelDir);
+		}
+	}
+
+	private String build() throws IOException {
 		String msg = "Package generated SUCCESSFULLY";
 
 		String projectName = getAppName();
@@ -385,6 +406,7 @@ public class PackageDialog extends EditDialog {
 		setVisible(androidKeyStorePassword, false);
 		setVisible(androidKeyAliasPassword, false);
 		setVisible(version, true);
+		setVisible(compileChapters, true);
 
 		String a = arch.getText();
 		if (a.equals("desktop")) {
@@ -93,6 +93,19 @@ public class SpineRenderer implements AnimationRenderer {
 
 	private Polygon bbox;
 
+	/**
+	 * Animation waiting for its skeleton to be loaded. The current animation
+	 * is shown meanwhile.
+	 */
+	private SpineAnimationDesc pendingAnimation;
+	private String pendingId;
+	private Tween.Type pendingRepeatType;
+	private int pendingCount;
+	private ActionCallback pendingCb;
+
+	/** Source loaded by warmAnimation() and not used by an animation yet */
+	private String warmSource;
+
 	class SkeletonCacheEntry {
 		int refCounter;
 		Skeleton skeleton;
@@ -237,6 +250,11 @@ public class SpineRenderer implements AnimationRenderer {
 
 	@Override
 	public void update(float delta) {
+		// The asset manager queue is updated by the world
+		if (pendingAnimation != null
+				&& EngineAssetManager.getInstance().isLoaded(getSourcePath(pendingAnimation.source)))
+			startPendingAnimation();
+
 		if (complete) {
 			return;
 		}
@@ -345,6 +363,7 @@ public class SpineRenderer implements AnimationRenderer {
 
 	@Override
 	public void startAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb) {
+		boolean prevFlipX = flipX;
 		SpineAnimationDesc fa = (SpineAnimationDesc) getAnimation(id);
 
 		if (fa == null) {
@@ -353,29 +372,47 @@ public class SpineRenderer implements AnimationRenderer {
 			return;
 		}
 
+		// the warmed source is now owned by the animation
+		if (fa.source.equals(warmSource))
+			warmSource = null;
+
+		// If the source is not loaded, keep showing the current animation and
+		// start the new one when the skeleton is loaded.
+		if (!isSourceReady(fa.source, fa.atlas)) {
+			flipX = prevFlipX;
+			pendingAnimation = fa;
+			pendingId = id;
+			pendingRepeatType = repeatType;
+			pendingCount = count;
+			pendingCb = cb;
+
+			// the animation doesn't wait for the prefetched scene
+			EngineAssetManager.getInstance().cancelBackgroundLoad();
+
+			return;
+		}
+
+		pendingAnimation = null;
+		pendingId = null;
+		pendingCb = null;
+
 		if (currentAnimation != null && currentAnimation.disposeWhenPlayed)
 			disposeSource(currentAnimation.source);
 
 		currentAnimation = fa;
-		currentSource = sourceCache.get(fa.source);
 
 		animationCb = cb;
 
-		// If the source is not loaded. Load it.
-		if (currentSource == null || currentSource.refCounter < 1) {
-			loadSource(fa.source, fa.atlas);
-			EngineAssetManager.getInstance().finishLoading();
+		// Creates the skeleton if the source has not been retrieved.
+		retrieveSource(fa.source, fa.atlas);
 
-			retrieveSource(fa.source, fa.atlas);
-
-			currentSource = sourceCache.get(fa.source);
+		currentSource = sourceCache.get(fa.source);
 
-			if (currentSource == null) {
-				EngineLogger.error("Could not load AnimationDesc: " + id);
-				currentAnimation = null;
+		if (currentSource == null) {
+			EngineLogger.error("Could not load AnimationDesc: " + id);
+			currentAnimation = null;
 
-				return;
-			}
+			return;
 		}
 
 		if (repeatType == Tween.Type.SPRITE_DEFINED) {
@@ -406,6 +443,46 @@ public class SpineRenderer implements AnimationRenderer {
 		setCurrentAnimation();
 	}
 
+	private void startPendingAnimation() {
+		startAnimation(pendingId, pendingRepeatType, pendingCount, pendingCb);
+	}
+
+	/**
+	 * Only one source is warmed at a time. If it has not been used by an
+	 * animation when another one is warmed, it is released.
+	 */
+	@Override
+	public void warmAnimation(String id) {
+		boolean prevFlipX = flipX;
+		SpineAnimationDesc fa = (SpineAnimationDesc) getAnimation(id);
+		flipX = prevFlipX;
+
+		if (fa == null)
+			return;
+
+		SkeletonCacheEntry entry = sourceCache.get(fa.source);
+
+		// already loaded or queued
+		if (entry != null && entry.refCounter > 0)
+			return;
+
+		releaseWarmSource();
+		loadSource(fa.source, fa.atlas);
+		warmSource = fa.source;
+	}
+
+	private void releaseWarmSource() {
+		if (warmSource == null)
+			return;
+
+		String s = warmSource;
+		warmSource = null;
+
+		if ((currentAnimation == null || !s.equals(currentAnimation.source))
+				&& (pendingAnimation == null || !s.equals(pendingAnimation.source)))
+			disposeSource(s);
+	}
+
 	private void setCurrentAnimation() {
 		try {
 			// TODO Make setup pose parametrizable in the AnimationDesc
@@ -613,25 +690,44 @@ public class SpineRenderer implements AnimationRenderer {
 			SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(
 					EngineAssetManager.ATLASES_DIR + entry.atlas + EngineAssetManager.ATLAS_EXT,
 					EngineAssetManager.getInstance().getScale());
-			EngineAssetManager.getInstance().load(EngineAssetManager.SPINE_DIR + source + EngineAssetManager.SPINE_EXT,
-					SkeletonData.class, parameter);
+			EngineAssetManager.getInstance().load(getSourcePath(source), SkeletonData.class, parameter);
 		}
 
 		entry.refCounter++;
 	}
 
+	private static String getSourcePath(String source) {
+		return EngineAssetManager.SPINE_DIR + source + EngineAssetManager.SPINE_EXT;
+	}
+
+	/**
+	 * Queues the source to load if it is not loaded. Doesn't wait.
+	 * 
+	 * @return true if the source is loaded.
+	 */
+	private boolean isSourceReady(String source, String atlas) {
+		SkeletonCacheEntry entry = sourceCache.get(source);
+
+		if (entry == null || entry.refCounter < 1)
+			loadSource(source, atlas);
+
+		return EngineAssetManager.getInstance().isLoaded(getSourcePath(source));
+	}
+
 	private void retrieveSource(String source, String atlas) {
 		SkeletonCacheEntry entry = sourceCache.get(source);
 
 		if (entry == null || entry.refCounter < 1) {
 			loadSource(source, atlas);
-			EngineAssetManager.getInstance().finishLoading();
 			entry = sourceCache.get(source);
 		}
 
+		if (!EngineAssetManager.getInstance().isLoaded(getSourcePath(source)))
+			EngineAssetManager.getInstance().finishLoading();
+
 		if (entry.skeleton == null) {
-			SkeletonData skeletonData = EngineAssetManager.getInstance()
-					.get(EngineAssetManager.SPINE_DIR + source + EngineAssetManager.SPINE_EXT, SkeletonData.class);
+			SkeletonData skeletonData = EngineAssetManager.getInstance().get(getSourcePath(source),
+					SkeletonData.class);
 
 			entry.skeleton = new Skeleton(skeletonData);
 
@@ -673,6 +769,18 @@ public class SpineRenderer implements AnimationRenderer {
 			if (fa != null && !fa.preload)
 				loadSource(fa.source, ((SpineAnimationDesc) fa).atlas);
 		}
+
+		// the animation pending when the state was saved or the scene disposed
+		if (pendingId != null) {
+			boolean prevFlipX = flipX;
+			pendingAnimation = (SpineAnimationDesc) getAnimation(pendingId);
+			flipX = prevFlipX;
+
+			if (pendingAnimation != null)
+				loadSource(pendingAnimation.source, pendingAnimation.atlas);
+			else
+				pendingId = null;
+		}
 	}
 
 	@Override
@@ -701,6 +809,9 @@ public class SpineRenderer implements AnimationRenderer {
 			startAnimation(initAnimation, Tween.Type.SPRITE_DEFINED, 1, null);
 		}
 
+		if (pendingAnimation != null)
+			startPendingAnimation();
+
 		computeBbox();
 	}
 
@@ -716,6 +827,11 @@ public class SpineRenderer implements AnimationRenderer {
 		currentSource = null;
 		renderer = null;
 		bounds = null;
+		warmSource = null;
+
+		// the pending animation id and callback are kept, the animation is
+		// started when the assets are loaded again
+		pendingAnimation = null;
 	}
 
 	@Override
@@ -742,6 +858,14 @@ public class SpineRenderer implements AnimationRenderer {
 
 			json.writeValue("lastAnimationTime", lastAnimationTime);
 			json.writeValue("complete", complete);
+
+			// The pending animation is started when the state is loaded
+			if (pendingId != null) {
+				json.writeValue("pendingAnimation", pendingId);
+				json.writeValue("pendingRepeatType", pendingRepeatType);
+				json.writeValue("pendingCount", pendingCount);
+				json.writeValue("pendingCb", ActionCallbackSerialization.find(pendingCb));
+			}
 		}
 	}
 
@@ -768,6 +892,14 @@ public class SpineRenderer implements AnimationRenderer {
 
 			lastAnimationTime = json.readValue("lastAnimationTime", Float.class, jsonData);
 			complete = json.readValue("complete", Boolean.class, jsonData);
+
+			pendingId = json.readValue("pendingAnimation", String.class, jsonData);
+
+			if (pendingId != null) {
+				pendingRepeatType = json.readValue("pendingRepeatType", Tween.Type.class, jsonData);
+				pendingCount = json.readValue("pendingCount", Integer.class, jsonData);
+				pendingCb = ActionCallbackSerialization.find(json.readValue("pendingCb", String.class, jsonData));
+			}
 		}
 	}
 }
\ No newline at end of file
@@ -41,8 +41,17 @@ public class BladeEngine implements ApplicationListener {
 	private boolean restart = false;
 	private UI ui;
 
+	/**
+	 * Returns the UI of the running game or null when the world is run without
+	 * UI (see {@link com.bladecoder.engine.headless.HeadlessRunner}).
+	 */
 	public static UI getAppUI() {
-		return ((BladeEngine) Gdx.app.getApplicationListener()).getUI();
+		ApplicationListener l = Gdx.app.getApplicationListener();
+
+		if (!(l instanceof BladeEngine))
+			return null;
+
+		return ((BladeEngine) l).getUI();
 	}
 
 	public void setTestMode(String s) {
@@ -23,6 +23,7 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.model.World.AssetState;
 import com.bladecoder.engine.util.ActionCallbackSerialization;
+import com.bladecoder.engine.util.EngineContext;
 
 /**
  * This is a queue to group all cb that must be triggered in the next iteration.
@@ -34,12 +35,11 @@ import com.bladecoder.engine.util.ActionCallbackSerialization;
  *
  */
 public class ActionCallbackQueue {
-	private static final List<ActionCallback> queue = new ArrayList<ActionCallback>();
-	private static final List<ActionCallback> runQueue = new ArrayList<ActionCallback>();
+	private static final Queues globalQueues = new Queues();
 	
 	public static void add(ActionCallback cb) {
 		if(World.getInstance().getAssetState() == AssetState.LOADED)
-			queue.add(cb);
+			queues().queue.add(cb);
 	}
 	
 	/**
@@ -49,6 +49,10 @@ public class ActionCallbackQueue {
 	 * cb.resume() can trigger more cb's
 	 */
 	public static void run() {
+		Queues q = queues();
+		List<ActionCallback> queue = q.queue;
+		List<ActionCallback> runQueue = q.runQueue;
+		
 		if(!queue.isEmpty()) {
 			runQueue.addAll(queue);				
 			queue.clear();
@@ -66,12 +70,12 @@ public class ActionCallbackQueue {
 	}
 	
 	public static void clear() {
-		queue.clear();
+		queues().queue.clear();
 	}
 	
 	public static void write(Json json) {
 		ArrayList<String> q = new ArrayList<String>();
-		for(ActionCallback cb: queue) {
+		for(ActionCallback cb: queues().queue) {
 			q.add(ActionCallbackSerialization.find(cb));
 		}
 		
@@ -83,10 +87,35 @@ public class ActionCallbackQueue {
 		ArrayList<String> q = json.readValue("queue", ArrayList.class, String.class,
 				jsonData);
 		
+		List<ActionCallback> queue = queues().queue;
 		queue.clear();
 		
 		for(String s: q) {
 			queue.add(ActionCallbackSerialization.find(s));
 		}
 	}
+	
+	/**
+	 * The queues of the engine context bound to the thread or the global ones. 
+	 */
+	private static Queues queues() {
+		EngineContext ctx = EngineContext.current();
+		
+		if(ctx == null)
+			return globalQueues;
+		
+		Queues q = ctx.get(Queues.class);
+		
+		if(q == null) {
+			q = new Queues();
+			ctx.put(Queues.class, q);
+		}
+		
+		return q;
+	}
+	
+	private static class Queues {
+		final List<ActionCallback> queue = new ArrayList<ActionCallback>();
+		final List<ActionCallback> runQueue = new ArrayList<ActionCallback>();
+	}
 }
@@ -16,30 +16,47 @@
 package com.bladecoder.engine.actions;
 
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
-import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
-import com.bladecoder.engine.util.ActionUtils;
+import com.bladecoder.engine.util.ActionBinder;
 import com.bladecoder.engine.util.EngineLogger;
 
 public class ActionFactory {
 
 	private static ClassLoader loader = ActionFactory.class.getClassLoader();
 
+	/** Action classes by name, to avoid the Class.forName() call per action */
+	private static final ConcurrentHashMap<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>();
+
 	public static void setActionClassLoader(ClassLoader loader) {
 		ActionFactory.loader = loader;
+
+		classes.clear();
+		ActionBinder.clearCache();
 	}
 	
 	public static ClassLoader getActionClassLoader() {
 		return loader;
 	}
 
+	public static Class<?> getActionClass(String className) throws ClassNotFoundException {
+		Class<?> c = classes.get(className);
+
+		if (c == null) {
+			c = Class.forName(className, true, loader);
+			classes.put(className, c);
+		}
+
+		return c;
+	}
+
 	public static Action createByClass(String className, HashMap<String, String> params) throws ClassNotFoundException, ReflectionException {
 
 		Action a = null;
 
-		Class<?> c = Class.forName(className, true, loader);
-		a = (Action) ClassReflection.newInstance(c);
+		ActionBinder binder = ActionBinder.get(getActionClass(className));
+		a = binder.newInstance();
 
 		if (params != null) {
 			// a.setParams(params);
@@ -48,7 +65,7 @@ public class ActionFactory {
 				String value = params.get(key);
 
 				try {
-					ActionUtils.setParam(a, key, value);
+					binder.setParam(a, key, value);
 				} catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
 					EngineLogger.error("Error Setting Action Param - Action:" + className + " Param: " + key
 							+ " Value: " + value + " Msg: NOT FOUND " + e.getMessage());
@@ -27,7 +27,9 @@ public class EndGameAction implements Action {
 	public boolean run(VerbRunner cb) {
 
 		UI ui = BladeEngine.getAppUI();
-		ui.setCurrentScreen(UI.Screens.CREDIT_SCREEN);
+
+		if (ui != null)
+			ui.setCurrentScreen(UI.Screens.CREDIT_SCREEN);
 
 		World.getInstance().endGame();
 
@@ -80,7 +80,12 @@ public class GotoAction implements Action {
 			y = pos.y * scale;
 		}
 			
-		actor.goTo(new Vector2(x, y), wait ? cb : null);
+		// The player must react in the same frame. NPC paths are solved in
+		// the pathfinding workers.
+		if (actor == World.getInstance().getCurrentScene().getPlayer())
+			actor.goTo(new Vector2(x, y), wait ? cb : null);
+		else
+			actor.goToAsync(new Vector2(x, y), wait ? cb : null);
 
 		return wait;
 	}
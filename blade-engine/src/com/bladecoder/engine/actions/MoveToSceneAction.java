@@ -68,6 +68,9 @@ public class MoveToSceneAction implements Action {
 			a.loadAssets();
 			EngineAssetManager.getInstance().finishLoading();
 			a.retrieveAssets();
+		} else if(w.isPrefetching(ts.getId())) {
+			// Loaded with the prefetched scene and retrieved when the scene is set
+			a.loadAssets();
 		}
 		
 		ts.addActor(a);
@@ -26,6 +26,7 @@ import com.bladecoder.engine.model.Scene;
 import com.bladecoder.engine.model.VerbRunner;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.ui.SceneScreen;
+import com.bladecoder.engine.ui.UI;
 import com.bladecoder.engine.ui.UI.Screens;
 
 @ActionDescription("Sets actor position in screen coordinates. This is used to show an actor in the same screen position when the scene has scrolled.")
@@ -53,10 +54,13 @@ public class ScreenPositionAction implements Action {
 
 		BaseActor a = s.getActor(actor.getActorId(), true);
 
-		if (position != null) {
+		UI ui = BladeEngine.getAppUI();
+
+		// There is no screen when running without UI
+		if (position != null && ui != null) {
 			float scale = EngineAssetManager.getInstance().getScale();
 			
-			Viewport viewport = ((SceneScreen)BladeEngine.getAppUI().getScreen(Screens.SCENE_SCREEN)).getViewport();
+			Viewport viewport = ((SceneScreen)ui.getScreen(Screens.SCENE_SCREEN)).getViewport();
 			
 			Vector3 v = new Vector3(position.x * scale, position.y * scale, 0);
 			
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.actions;
+
+import com.bladecoder.engine.model.AnimationRenderer;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.model.SpriteActor;
+import com.bladecoder.engine.model.VerbRunner;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.util.EngineLogger;
+
+@ActionDescription("Loads the animation assets in background, so the animation starts without waiting when it is set")
+public class WarmAnimationAction implements Action {
+
+	@ActionProperty(required = true)
+	@ActionPropertyDescription("The Animation to load")
+	private ActorAnimationRef animation;
+
+	@Override
+	public boolean run(VerbRunner cb) {
+		BaseActor a = World.getInstance().getCurrentScene().getActor(animation.getActorId(), true);
+
+		if (!(a instanceof SpriteActor)) {
+			EngineLogger.error("WarmAnimationAction: Actor not found or not a SpriteActor: " + animation.getActorId());
+			return false;
+		}
+
+		if (((SpriteActor) a).getRenderer() instanceof AnimationRenderer)
+			((AnimationRenderer) ((SpriteActor) a).getRenderer()).warmAnimation(animation.getAnimationId());
+
+		return false;
+	}
+
+}
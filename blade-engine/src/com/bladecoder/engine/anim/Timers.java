@@ -15,10 +15,6 @@
  ******************************************************************************/
 package com.bladecoder.engine.anim;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
@@ -26,54 +22,300 @@ import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.util.ActionCallbackSerialization;
 
-public class Timers {
-	private List<Timer> timers = new ArrayList<>();
+/**
+ * Schedules the timers in a hierarchical timing wheel. Adding a timer and
+ * firing it are O(1) and the update only visits the wheel slots that expire,
+ * so the pending timers don't cost anything per frame.
+ *
+ * The level 0 wheel has a slot per tick, every next level slot covers a
+ * whole lower level wheel. When a lower level wheel wraps, the timers of the
+ * next level slot are redistributed to the lower levels.
+ *
+ * The timers of a slot are kept in the order they were added, also when they
+ * are redistributed, so the timers expiring in the same tick fire in that
+ * order.
+ *
+ * The timers are saved in the same format as the old timer list.
+ *
+ * @author rgarcia
+ */
+public class Timers implements Serializable {
+	/** Duration of the level 0 slots in seconds */
+	private static final float TICK = 1 / 60f;
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	/** Linked list of timers for every slot */
+	private final Timer[][] wheel = new Timer[LEVELS][SLOTS];
+	/** Last timer of every slot, to append */
+	private final Timer[][] tails = new Timer[LEVELS][SLOTS];
+
+	/** Timers beyond the last level. Redistributed when the last level wraps */
+	private Timer overflow;
+	private Timer overflowTail;
+
+	/** Released timers to reuse */
+	private Timer pool;
+
+	/** Time since the creation of the wheel */
+	private double now;
+
+	/** Next tick to process. Ticks before are already processed. */
+	private long currentTick;
+
+	/** The last tick whose upper levels were redistributed */
+	private long cascadedTick;
+
+	private int size;
 
 	public void addTimer(float time, ActionCallback cb) {
-		Timer t = new Timer();
-		
+		addTimer(time, 0, cb);
+	}
+
+	private void addTimer(float time, float currentTime, ActionCallback cb) {
+		Timer t = pool;
+
+		if (t != null)
+			pool = t.next;
+		else
+			t = new Timer();
+
 		t.time = time;
+		t.deadline = now + time - currentTime;
 		t.cb = cb;
 
-		timers.add(t);
+		schedule(t);
+		size++;
 	}
 
 	public void clear() {
-		timers.clear();
+		for (int l = 0; l < LEVELS; l++) {
+			for (int s = 0; s < SLOTS; s++) {
+				release(wheel[l][s]);
+				wheel[l][s] = null;
+				tails[l][s] = null;
+			}
+		}
+
+		release(overflow);
+		overflow = null;
+		overflowTail = null;
+		size = 0;
+	}
+
+	public int size() {
+		return size;
 	}
 
 	public void update(float delta) {
-		final Iterator<Timer> it = timers.iterator();
-		while (it.hasNext()) {
-			final Timer t = it.next();
+		now += delta;
 
-			t.currentTime += delta;
+		long nowTick = (long) (now / TICK);
 
-			if (t.currentTime >= t.time) {
-				it.remove();
-				ActionCallbackQueue.add(t.cb);
+		// Nothing to redistribute or fire
+		if (size == 0) {
+			currentTick = cascadedTick = nowTick;
+			return;
+		}
+
+		while (true) {
+			if (cascadedTick != currentTick) {
+				cascade(currentTick);
+				cascadedTick = currentTick;
 			}
+
+			fire(currentTick & SLOT_MASK, currentTick < nowTick);
+
+			// The current tick is not complete, its slot is visited again in
+			// the next update
+			if (currentTick >= nowTick)
+				break;
+
+			currentTick++;
 		}
 	}
 
-	private static class Timer implements Serializable {
-		private float time;
-		private float currentTime = 0;
-		private ActionCallback cb;
-		
-		@Override
-		public void write(Json json) {	
-			json.writeValue("time", time);
-			json.writeValue("currentTime", currentTime);	
-			json.writeValue("cb", ActionCallbackSerialization.find(cb), cb == null ? null : String.class);	
+	/**
+	 * Fires the timers in the level 0 slot whose deadline has passed.
+	 * 
+	 * @param all
+	 *            the slot tick is complete, all its timers must be fired.
+	 */
+	private void fire(long slot, boolean all) {
+		int s = (int) slot;
+		Timer t = wheel[0][s];
+		Timer pending = null;
+		Timer pendingTail = null;
+
+		wheel[0][s] = null;
+		tails[0][s] = null;
+
+		while (t != null) {
+			Timer next = t.next;
+
+			if (all || t.deadline <= now) {
+				ActionCallback cb = t.cb;
+
+				t.cb = null;
+				t.next = pool;
+				pool = t;
+				size--;
+
+				ActionCallbackQueue.add(cb);
+			} else {
+				t.next = null;
+
+				if (pendingTail == null)
+					pending = t;
+				else
+					pendingTail.next = t;
+
+				pendingTail = t;
+			}
+
+			t = next;
 		}
 
-		@Override
-		public void read (Json json, JsonValue jsonData) {
-			time = json.readValue("time", Float.class, jsonData);
-			currentTime = json.readValue("currentTime", Float.class, jsonData);
-			String cbSer = json.readValue("cb", String.class, jsonData);
-			cb = ActionCallbackSerialization.find(cbSer);
+		// Timers added while firing are already in the slot, after the pending
+		// ones
+		if (pending != null) {
+			pendingTail.next = wheel[0][s];
+			wheel[0][s] = pending;
+
+			if (tails[0][s] == null)
+				tails[0][s] = pendingTail;
 		}
 	}
+
+	/**
+	 * Redistributes the timers of the upper levels when the lower levels wrap
+	 * at the tick.
+	 */
+	private void cascade(long tick) {
+		for (int l = 1; l <= LEVELS; l++) {
+			if ((tick & ((1L << (SLOT_BITS * l)) - 1)) != 0)
+				break;
+
+			Timer t;
+
+			if (l == LEVELS) {
+				t = overflow;
+				overflow = null;
+				overflowTail = null;
+			} else {
+				int slot = (int) ((tick >> (SLOT_BITS * l)) & SLOT_MASK);
+				t = wheel[l][slot];
+				wheel[l][slot] = null;
+				tails[l][slot] = null;
+			}
+
+			while (t != null) {
+				Timer next = t.next;
+				schedule(t);
+				t = next;
+			}
+		}
+	}
+
+	private void schedule(Timer t) {
+		long tick = (long) (t.deadline / TICK);
+
+		if (tick < currentTick)
+			tick = currentTick;
+
+		for (int l = 0; l < LEVELS; l++) {
+			int shift = SLOT_BITS * (l + 1);
+
+			// Same upper bits than the current tick: it's in this level wheel
+			if ((tick >> shift) == (currentTick >> shift)) {
+				int slot = (int) ((tick >> (SLOT_BITS * l)) & SLOT_MASK);
+
+				t.next = null;
+
+				if (tails[l][slot] == null)
+					wheel[l][slot] = t;
+				else
+					tails[l][slot].next = t;
+
+				tails[l][slot] = t;
+
+				return;
+			}
+		}
+
+		t.next = null;
+
+		if (overflowTail == null)
+			overflow = t;
+		else
+			overflowTail.next = t;
+
+		overflowTail = t;
+	}
+
+	private void release(Timer t) {
+		while (t != null) {
+			Timer next = t.next;
+
+			t.cb = null;
+			t.next = pool;
+			pool = t;
+
+			t = next;
+		}
+	}
+
+	@Override
+	public void write(Json json) {
+		json.writeArrayStart("timers");
+
+		for (int l = 0; l < LEVELS; l++) {
+			for (int s = 0; s < SLOTS; s++)
+				write(json, wheel[l][s]);
+		}
+
+		write(json, overflow);
+
+		json.writeArrayEnd();
+	}
+
+	private void write(Json json, Timer t) {
+		for (; t != null; t = t.next) {
+			json.writeObjectStart(Timer.class, null);
+			json.writeValue("time", t.time);
+			json.writeValue("currentTime", (float) Math.max(0, t.time - (t.deadline - now)));
+			json.writeValue("cb", ActionCallbackSerialization.find(t.cb), t.cb == null ? null : String.class);
+			json.writeObjectEnd();
+		}
+	}
+
+	@Override
+	public void read(Json json, JsonValue jsonData) {
+		clear();
+
+		JsonValue timersValue = jsonData.get("timers");
+
+		if (timersValue == null)
+			return;
+
+		for (JsonValue v = timersValue.child; v != null; v = v.next) {
+			float time = json.readValue("time", Float.class, v);
+			float currentTime = json.readValue("currentTime", Float.class, v);
+			String cbSer = json.readValue("cb", String.class, v);
+
+			addTimer(time, currentTime, ActionCallbackSerialization.find(cbSer));
+		}
+	}
+
+	private static class Timer {
+		private float time;
+		private double deadline;
+		private ActionCallback cb;
+
+		/** Next timer in the slot or in the pool */
+		private Timer next;
+	}
 }
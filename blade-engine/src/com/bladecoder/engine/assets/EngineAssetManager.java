@@ -49,6 +49,7 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.utils.Array;
 import com.bladecoder.engine.util.Config;
+import com.bladecoder.engine.util.EngineContext;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.FileUtils;
 
@@ -76,6 +77,7 @@ public class EngineAssetManager extends AssetManager {
 	public static final String FONT_EXT = ".ttf";
 
 	public static final String CHAPTER_EXT = ".chapter.json";
+	public static final String CHAPTER_BUNDLE_EXT = ".chapter.bin";
 
 	private static final String OGG_EXT = ".ogg";
 	private static final String AAC_EXT = ".m4a";
@@ -86,6 +88,16 @@ public class EngineAssetManager extends AssetManager {
 
 	private EngineResolutionFileResolver resResolver;
 
+	/**
+	 * Assets queued to be used later. The queue is FIFO, so they are
+	 * cancelled before waiting for assets needed now.
+	 */
+	public interface BackgroundLoad {
+		void cancel();
+	}
+
+	private BackgroundLoad backgroundLoad;
+
 	protected EngineAssetManager() {
 		this(new InternalFileHandleResolver());
 		// getLogger().setLevel(Application.LOG_DEBUG);
@@ -123,11 +135,33 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public static EngineAssetManager getInstance() {
-		if (instance == null) {
-			instance = new EngineAssetManager();
+		EngineAssetManager am = current();
+
+		if (am == null) {
+			am = new EngineAssetManager();
+			setInstance(am);
 		}
 
-		return instance;
+		return am;
+	}
+
+	/**
+	 * The instance of the engine context bound to the thread or the global
+	 * instance.
+	 */
+	private static EngineAssetManager current() {
+		EngineContext ctx = EngineContext.current();
+
+		return ctx == null ? instance : ctx.get(EngineAssetManager.class);
+	}
+
+	private static void setInstance(EngineAssetManager am) {
+		EngineContext ctx = EngineContext.current();
+
+		if (ctx == null)
+			instance = am;
+		else
+			ctx.put(EngineAssetManager.class, am);
 	}
 
 	/**
@@ -140,12 +174,13 @@ public class EngineAssetManager extends AssetManager {
 	 *            is the project base folder
 	 */
 	public static void createEditInstance(String base) {
-		if (instance != null)
-			instance.dispose();
+		if (current() != null)
+			current().dispose();
 
-		instance = new EngineAssetManager(new BasePathResolver(base));
+		EngineAssetManager am = new EngineAssetManager(new BasePathResolver(base));
+		setInstance(am);
 
-		instance.forceResolution("1");
+		am.forceResolution("1");
 	}
 
 	/**
@@ -155,10 +190,10 @@ public class EngineAssetManager extends AssetManager {
 	 *            The asset base folder
 	 */
 	public static void setAssetFolder(String base) {
-		if (instance != null)
-			instance.dispose();
+		if (current() != null)
+			current().dispose();
 
-		instance = new EngineAssetManager(new InternalFolderResolver(base));
+		setInstance(new EngineAssetManager(new InternalFolderResolver(base)));
 	}
 
 	public void forceResolution(String suffix) {
@@ -175,6 +210,47 @@ public class EngineAssetManager extends AssetManager {
 		return !update();
 	}
 
+	/**
+	 * libgdx registers the created textures in static structures, so the
+	 * assets of the engine contexts running in parallel are loaded one at a
+	 * time.
+	 */
+	@Override
+	public boolean update() {
+		if (EngineContext.current() == null)
+			return super.update();
+
+		synchronized (EngineContext.class) {
+			return super.update();
+		}
+	}
+
+	/**
+	 * Cancels the background load before waiting, so the wait only includes
+	 * the assets needed now.
+	 */
+	@Override
+	public void finishLoading() {
+		cancelBackgroundLoad();
+		super.finishLoading();
+	}
+
+	public void setBackgroundLoad(BackgroundLoad l) {
+		backgroundLoad = l;
+	}
+
+	/**
+	 * Unloads the background assets still queued. Called when an asset is
+	 * needed as soon as possible.
+	 */
+	public void cancelBackgroundLoad() {
+		if (backgroundLoad != null) {
+			BackgroundLoad l = backgroundLoad;
+			backgroundLoad = null;
+			l.cancel();
+		}
+	}
+
 	public void loadAtlas(String name) {
 		load(ATLASES_DIR + name + ATLAS_EXT, TextureAtlas.class);
 	}
@@ -255,9 +331,31 @@ public class EngineAssetManager extends AssetManager {
 		return get(filename, Texture.class);
 	}
 
+	/**
+	 * Estimates the memory used by the loaded textures, supposing 4 bytes per
+	 * pixel.
+	 */
+	public long getLoadedTextureBytes() {
+		long bytes = 0;
+		Array<String> names = getAssetNames();
+
+		for (int i = 0; i < names.size; i++) {
+			String name = names.get(i);
+
+			if (getAssetType(name) == Texture.class) {
+				Texture t = get(name, Texture.class);
+				bytes += (long) t.getWidth() * t.getHeight() * 4;
+			}
+		}
+
+		return bytes;
+	}
+
 	public void dispose() {
 		super.dispose();
-		instance = null;
+
+		if (current() == this)
+			setInstance(null);
 	}
 
 	public String checkIOSSoundName(String filename) {
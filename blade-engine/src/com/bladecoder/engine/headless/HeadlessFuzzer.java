@@ -0,0 +1,344 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.headless;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.bladecoder.engine.model.CoverageListener;
+import com.bladecoder.engine.model.Dialog;
+import com.bladecoder.engine.model.DialogOption;
+import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.util.ActionCallbackSerialization;
+import com.bladecoder.engine.util.Config;
+import com.bladecoder.engine.util.EngineContext;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Runs several {@link HeadlessRunner} bot sessions in parallel, every one with
+ * its own seed and its own {@link EngineContext}, and aggregates the crashes,
+ * the dead-ends and the verbs and dialog options reached by all the sessions.
+ *
+ * Must be run in the libgdx headless backend.
+ *
+ * @author rgarcia
+ */
+public class HeadlessFuzzer implements ApplicationListener {
+	private static final int DEFAULT_SESSIONS = 16;
+
+	private int sessions = DEFAULT_SESSIONS;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed = System.currentTimeMillis();
+	private float simulatedTime = -1;
+
+	private String chapter;
+	private String forceRes;
+	private String reportFile;
+
+	private ExecutorService executor;
+	private long wallStart;
+	private boolean finished = false;
+
+	/** Results of the finished sessions, guarded by itself */
+	private final ArrayList<Session> results = new ArrayList<Session>();
+
+	public void setSessions(int sessions) {
+		this.sessions = sessions;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * The seed of the first session. The next sessions use the next seeds.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @param simulatedTime
+	 *            the game time to simulate in every session in seconds.
+	 */
+	public void setSimulatedTime(float simulatedTime) {
+		this.simulatedTime = simulatedTime;
+	}
+
+	public void setChapter(String chapter) {
+		this.chapter = chapter;
+	}
+
+	public void forceResolution(String forceRes) {
+		this.forceRes = forceRes;
+	}
+
+	public void setReportFile(String reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	public boolean hasFailures() {
+		synchronized (results) {
+			for (Session s : results) {
+				if (s.runner.hasFailures())
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public void create() {
+		wallStart = System.currentTimeMillis();
+
+		// Loaded before starting the sessions, the properties are shared
+		Config.load();
+		HeadlessRunner.installNoopGL();
+
+		executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, sessions)));
+
+		for (int i = 0; i < sessions; i++) {
+			final Session s = new Session(seed + i);
+
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					s.run();
+
+					synchronized (results) {
+						results.add(s);
+					}
+				}
+			});
+		}
+
+		executor.shutdown();
+	}
+
+	@Override
+	public void render() {
+		if (finished)
+			return;
+
+		try {
+			if (!executor.awaitTermination(100, TimeUnit.MILLISECONDS))
+				return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		finished = true;
+
+		String report = getReport();
+
+		EngineLogger.info(report);
+
+		if (reportFile != null) {
+			try {
+				FileWriter fw = new FileWriter(reportFile);
+				fw.write(report);
+				fw.write(getCoverageReport());
+				fw.close();
+			} catch (IOException e) {
+				EngineLogger.error("FUZZER: Error writing report: " + reportFile, e);
+			}
+		}
+
+		Gdx.app.exit();
+	}
+
+	public String getReport() {
+		float wallSecs = Math.max(1, System.currentTimeMillis() - wallStart) / 1000f;
+		double time = 0;
+		long verbs = 0;
+		int runs = 0, completed = 0;
+		HashSet<String> scenes = new HashSet<String>();
+		TreeMap<String, Integer> verbCoverage = new TreeMap<String, Integer>();
+		TreeMap<String, Integer> optionCoverage = new TreeMap<String, Integer>();
+
+		StringBuilder failures = new StringBuilder();
+		int crashes = 0, deadEnds = 0;
+
+		synchronized (results) {
+			for (Session s : results) {
+				HeadlessRunner r = s.runner;
+
+				time += r.getSimulatedTime();
+				verbs += r.getVerbsRun();
+				runs += r.getRuns();
+				completed += r.getCompletedRuns();
+				scenes.addAll(r.getVisitedScenes());
+				crashes += r.getCrashes().size();
+				deadEnds += r.getDeadEnds().size();
+
+				add(verbCoverage, s.verbs);
+				add(optionCoverage, s.options);
+
+				for (String c : r.getCrashes())
+					failures.append("  CRASH seed ").append(s.seed).append(' ').append(c).append('\n');
+
+				for (String d : r.getDeadEnds())
+					failures.append("  DEAD-END seed ").append(s.seed).append(' ').append(d).append('\n');
+			}
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("HEADLESS FUZZER REPORT\n");
+		sb.append(String.format("Sessions: %d (seeds %d-%d), threads: %d\n", sessions, seed, seed + sessions - 1,
+				Math.min(threads, sessions)));
+		sb.append(String.format("Simulated time: %.1fs (%.2fh)\n", time, time / 3600));
+		sb.append(String.format("Wall time: %.1fs (x%.0f)\n", wallSecs, time / wallSecs));
+		sb.append(String.format("Verbs: %d (%.1f/s)\n", verbs, verbs / wallSecs));
+		sb.append("Runs: ").append(runs).append(", completed: ").append(completed).append('\n');
+		sb.append("Scenes visited: ").append(scenes.size()).append(' ').append(new TreeSet<String>(scenes))
+				.append('\n');
+		sb.append("Verbs reached: ").append(verbCoverage.size()).append('\n');
+		sb.append("Dialog options reached: ").append(optionCoverage.size()).append('\n');
+		sb.append("Crashes: ").append(crashes).append('\n');
+		sb.append("Dead-ends: ").append(deadEnds).append('\n');
+		sb.append(failures);
+
+		return sb.toString();
+	}
+
+	/**
+	 * The verbs and dialog options reached with the number of sessions that
+	 * reached them.
+	 */
+	private String getCoverageReport() {
+		TreeMap<String, Integer> verbCoverage = new TreeMap<String, Integer>();
+		TreeMap<String, Integer> optionCoverage = new TreeMap<String, Integer>();
+
+		synchronized (results) {
+			for (Session s : results) {
+				add(verbCoverage, s.verbs);
+				add(optionCoverage, s.options);
+			}
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("\nVERBS\n");
+
+		for (Entry<String, Integer> e : verbCoverage.entrySet())
+			sb.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+
+		sb.append("\nDIALOG OPTIONS\n");
+
+		for (Entry<String, Integer> e : optionCoverage.entrySet())
+			sb.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+
+		return sb.toString();
+	}
+
+	private static void add(TreeMap<String, Integer> coverage, HashSet<String> reached) {
+		for (String k : reached) {
+			Integer n = coverage.get(k);
+			coverage.put(k, n == null ? 1 : n + 1);
+		}
+	}
+
+	@Override
+	public void resize(int width, int height) {
+	}
+
+	@Override
+	public void pause() {
+	}
+
+	@Override
+	public void resume() {
+	}
+
+	@Override
+	public void dispose() {
+		if (executor != null)
+			executor.shutdownNow();
+	}
+
+	/**
+	 * A bot session running in its own engine context.
+	 */
+	private class Session implements CoverageListener {
+		final long seed;
+		final HeadlessRunner runner = new HeadlessRunner();
+
+		final HashSet<String> verbs = new HashSet<String>();
+		final HashSet<String> options = new HashSet<String>();
+
+		Session(long seed) {
+			this.seed = seed;
+		}
+
+		void run() {
+			EngineContext ctx = new EngineContext();
+			ctx.bind();
+
+			try {
+				runner.setStandalone(false);
+				runner.setSeed(seed);
+				runner.setChapter(chapter);
+
+				if (forceRes != null)
+					runner.forceResolution(forceRes);
+
+				if (simulatedTime > 0)
+					runner.setSimulatedTime(simulatedTime);
+
+				World.getInstance().setCoverageListener(this);
+
+				runner.create();
+
+				while (!runner.isFinished())
+					runner.render();
+
+				runner.dispose();
+			} catch (Throwable t) {
+				EngineLogger.error("FUZZER: Error in session " + seed + ": " + t.getMessage());
+				runner.getCrashes().add("SESSION ERROR: " + t);
+			} finally {
+				ctx.dispose();
+				EngineContext.unbind();
+			}
+		}
+
+		@Override
+		public void verbRun(Verb v) {
+			String id = World.getInstance().getCurrentScene() != null ? ActionCallbackSerialization.find(v) : null;
+
+			verbs.add(id != null ? id : v.getHashKey());
+		}
+
+		@Override
+		public void dialogOptionSelected(Dialog d, DialogOption o) {
+			options.add(d.getActor() + "#" + d.getId() + "#" + d.getOptions().indexOf(o));
+		}
+	}
+}
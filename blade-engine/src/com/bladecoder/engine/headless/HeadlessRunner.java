@@ -0,0 +1,553 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.headless;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.Inventory;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.model.World.AssetState;
+import com.bladecoder.engine.ui.Recorder;
+import com.bladecoder.engine.ui.TesterBot;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Runs the game without rendering and plays it with the {@link TesterBot} or
+ * a {@link Recorder} record. The world is updated with a fixed delta as fast
+ * as possible, so hours of game can be simulated in minutes.
+ *
+ * Must be run in the libgdx headless backend. The GL calls made when loading
+ * the textures are ignored and the audio is provided by the backend mock.
+ *
+ * At the end, a report with the crashes, the dead-ends and the verbs per
+ * second is printed and written to the report file if set.
+ *
+ * @author rgarcia
+ */
+public class HeadlessRunner implements ApplicationListener {
+	private static final float DEFAULT_DELTA = 1 / 60f;
+
+	/** Max. time in ms. stepping the world in every render() call */
+	private static final int RENDER_TIME = 100;
+
+	/** Default simulated time in seconds */
+	private static final float DEFAULT_SIMULATED_TIME = 60 * 60;
+
+	/** Simulated time in seconds without reaching a new state to report a dead-end */
+	private static final float DEFAULT_DEAD_END_TIME = 10 * 60;
+
+	/** Simulated time in seconds in cut mode to report a dead-end */
+	private static final float CUT_MODE_TIME = 5 * 60;
+
+	private String chapter;
+	private String gameState;
+	private String recordName;
+	private String forceRes;
+	private String reportFile;
+	private boolean debug = false;
+	private boolean standalone = true;
+
+	private float delta = DEFAULT_DELTA;
+	private float simulatedTime = DEFAULT_SIMULATED_TIME;
+	private float deadEndTime = DEFAULT_DEAD_END_TIME;
+
+	private final TesterBot bot = new TesterBot();
+	private final Recorder recorder = new Recorder();
+
+	private double time;
+	private long frames;
+	private long wallStart;
+	private long wallTime;
+	private boolean finished = false;
+
+	/** Time of the last new state or the last restart */
+	private double progressTime;
+	private double cutModeTime;
+
+	/** The scene and inventory combinations reached in the current run */
+	private final HashSet<String> states = new HashSet<String>();
+	private final LinkedHashSet<String> visitedScenes = new LinkedHashSet<String>();
+
+	private final ArrayList<String> crashes = new ArrayList<String>();
+	private final ArrayList<String> deadEnds = new ArrayList<String>();
+	private final ArrayList<String> errors = new ArrayList<String>();
+
+	private int runs;
+	private int completedRuns;
+
+	public void setChapter(String chapter) {
+		this.chapter = chapter;
+	}
+
+	public void loadGameState(String s) {
+		gameState = s;
+	}
+
+	/**
+	 * Plays the record instead of running the bot.
+	 */
+	public void setPlayMode(String recordName) {
+		this.recordName = recordName;
+	}
+
+	public void forceResolution(String forceRes) {
+		this.forceRes = forceRes;
+	}
+
+	public void setDebugMode() {
+		debug = true;
+	}
+
+	public void setReportFile(String reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	public void setDelta(float delta) {
+		this.delta = delta;
+	}
+
+	/**
+	 * @param simulatedTime
+	 *            the game time to simulate in seconds.
+	 */
+	public void setSimulatedTime(float simulatedTime) {
+		this.simulatedTime = simulatedTime;
+	}
+
+	/**
+	 * @param deadEndTime
+	 *            the game time in seconds without reaching a new scene or
+	 *            inventory to consider the game in a dead-end.
+	 */
+	public void setDeadEndTime(float deadEndTime) {
+		this.deadEndTime = deadEndTime;
+	}
+
+	/**
+	 * Sets the seed of the bot random choices.
+	 */
+	public void setSeed(long seed) {
+		bot.setSeed(seed);
+	}
+
+	/**
+	 * When not standalone, the report is not printed, the application doesn't
+	 * exit when finished and the logged errors are not collected (the logger is
+	 * shared by all the engine contexts). Used to run several sessions in
+	 * parallel.
+	 */
+	public void setStandalone(boolean standalone) {
+		this.standalone = standalone;
+	}
+
+	/**
+	 * The bot used when not playing a record. Can be configured before the
+	 * application starts.
+	 */
+	public TesterBot getTesterBot() {
+		return bot;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * @return true when the run has crashes or dead-ends.
+	 */
+	public boolean hasFailures() {
+		return !crashes.isEmpty() || !deadEnds.isEmpty();
+	}
+
+	public double getSimulatedTime() {
+		return time;
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	public int getVerbsRun() {
+		return recordName != null ? recorder.getPlayedVerbs() : bot.getVerbsRun();
+	}
+
+	public int getRuns() {
+		return runs;
+	}
+
+	public int getCompletedRuns() {
+		return completedRuns;
+	}
+
+	public ArrayList<String> getCrashes() {
+		return crashes;
+	}
+
+	public ArrayList<String> getDeadEnds() {
+		return deadEnds;
+	}
+
+	public LinkedHashSet<String> getVisitedScenes() {
+		return visitedScenes;
+	}
+
+	@Override
+	public void create() {
+		wallStart = System.currentTimeMillis();
+
+		if (debug)
+			EngineLogger.setDebug();
+
+		installNoopGL();
+
+		if (forceRes != null)
+			EngineAssetManager.getInstance().forceResolution(forceRes);
+
+		try {
+			World.getInstance().loadWorldDesc();
+		} catch (Exception e) {
+			crash(e);
+			finish();
+			return;
+		}
+
+		bot.setRunGoto(true);
+		bot.setPassTexts(true);
+
+		if (!start())
+			finish();
+	}
+
+	/**
+	 * Loads the game and starts the bot or the recorder.
+	 *
+	 * @return false if the game couldn't be loaded.
+	 */
+	private boolean start() {
+		World w = World.getInstance();
+
+		runs++;
+		states.clear();
+		progressTime = cutModeTime = time;
+
+		if (standalone)
+			EngineLogger.lastError = null;
+
+		try {
+			w.loadChapter(chapter);
+
+			if (recordName != null) {
+				recorder.setFilename(recordName);
+				recorder.load();
+				recorder.setPlaying(true);
+			} else {
+				if (gameState != null)
+					w.loadGameState(gameState);
+
+				bot.setEnabled(true);
+			}
+		} catch (Exception e) {
+			crash(e);
+			return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public void render() {
+		if (finished)
+			return;
+
+		long t0 = System.currentTimeMillis();
+
+		// Returns from time to time so the application can process its
+		// runnables and exit
+		while (System.currentTimeMillis() - t0 < RENDER_TIME) {
+			if (!step()) {
+				finish();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Updates the world and the player a fixed delta.
+	 *
+	 * @return false when the simulation has ended.
+	 */
+	private boolean step() {
+		if (time >= simulatedTime)
+			return false;
+
+		World w = World.getInstance();
+
+		try {
+			if (!w.isDisposed()) {
+				w.update(delta);
+
+				if (w.getAssetState() != AssetState.LOADED) {
+					// Loads the assets in the same step, the game time doesn't
+					// pass while loading
+					if (w.getAssetState() == AssetState.LOAD_ASSETS
+							|| w.getAssetState() == AssetState.LOAD_ASSETS_AND_INIT_SCENE)
+						w.update(0);
+
+					EngineAssetManager.getInstance().finishLoading();
+					w.resize(w.getWidth(), w.getHeight());
+					w.update(0);
+				}
+			}
+
+			// The game has ended
+			if (w.isDisposed()) {
+				completedRuns++;
+				restart();
+
+				return !finished;
+			}
+
+			if (recordName != null) {
+				recorder.update(delta);
+			} else {
+				bot.update(delta);
+			}
+
+			frames++;
+			time += delta;
+
+			if (standalone && EngineLogger.lastError != null) {
+				errors.add(format(w, EngineLogger.lastError));
+				EngineLogger.lastError = null;
+			}
+
+			checkProgress(w);
+		} catch (Throwable t) {
+			crash(t);
+			restart();
+		}
+
+		if (recordName != null && !recorder.isPlaying())
+			return false;
+
+		return !finished;
+	}
+
+	/**
+	 * Reports a dead-end when no new scene and inventory combination is reached
+	 * for some time or when the game doesn't leave the cut mode.
+	 */
+	private void checkProgress(World w) {
+		Scene s = w.getCurrentScene();
+
+		if (s == null)
+			return;
+
+		visitedScenes.add(s.getId());
+
+		if (states.add(getState(w)))
+			progressTime = time;
+
+		if (!w.inCutMode())
+			cutModeTime = time;
+
+		String reason = null;
+
+		if (time - cutModeTime > CUT_MODE_TIME)
+			reason = "STUCK IN CUT MODE";
+		else if (recordName == null && time - progressTime > deadEndTime)
+			reason = "NO NEW SCENE OR INVENTORY ITEM IN " + (int) deadEndTime + "s";
+
+		if (reason != null) {
+			deadEnds.add(format(w, reason));
+			EngineLogger.error("HEADLESS DEAD-END: " + reason);
+			restart();
+		}
+	}
+
+	private String getState(World w) {
+		StringBuilder sb = new StringBuilder();
+		Inventory inv = w.getInventory();
+
+		sb.append(w.getCurrentChapter()).append('/').append(w.getCurrentScene().getId());
+
+		for (int i = 0; i < inv.getNumItems(); i++)
+			sb.append('/').append(inv.getItem(i).getId());
+
+		return sb.toString();
+	}
+
+	private void restart() {
+		if (recordName != null) {
+			// The record can only be played once
+			finished = true;
+			return;
+		}
+
+		try {
+			World.getInstance().dispose();
+		} catch (Exception e) {
+			EngineLogger.error("HEADLESS: Error disposing world", e);
+		}
+
+		if (!start())
+			finished = true;
+	}
+
+	private void crash(Throwable t) {
+		StringWriter sw = new StringWriter();
+		t.printStackTrace(new PrintWriter(sw));
+
+		crashes.add(format(World.getInstance(), sw.toString()));
+		EngineLogger.error("HEADLESS CRASH: " + t.getMessage());
+	}
+
+	private String format(World w, String msg) {
+		Scene s = w.isDisposed() ? null : w.getCurrentScene();
+
+		return String.format("[%.1fs] %s: %s", time, s == null ? "-" : s.getId(), msg);
+	}
+
+	private void finish() {
+		if (wallTime == 0)
+			wallTime = Math.max(1, System.currentTimeMillis() - wallStart);
+
+		finished = true;
+
+		if (!standalone)
+			return;
+
+		String report = getReport();
+
+		EngineLogger.info(report);
+
+		if (reportFile != null) {
+			try {
+				FileWriter fw = new FileWriter(reportFile);
+				fw.write(report);
+				fw.close();
+			} catch (IOException e) {
+				EngineLogger.error("HEADLESS: Error writing report: " + reportFile, e);
+			}
+		}
+
+		Gdx.app.exit();
+	}
+
+	public String getReport() {
+		int numVerbs = getVerbsRun();
+		float wallSecs = wallTime / 1000f;
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("HEADLESS RUN REPORT\n");
+		sb.append(String.format("Simulated time: %.1fs (%.2fh)\n", time, time / 3600));
+		sb.append(String.format("Wall time: %.1fs (x%.0f)\n", wallSecs, time / wallSecs));
+		sb.append(String.format("Frames: %d (%.0f fps)\n", frames, frames / wallSecs));
+		sb.append(String.format("Verbs: %d (%.2f/simulated s, %.1f/s)\n", numVerbs,
+				time > 0 ? numVerbs / time : 0, numVerbs / wallSecs));
+		sb.append("Runs: ").append(runs).append(", completed: ").append(completedRuns).append('\n');
+		sb.append("Scenes visited: ").append(visitedScenes.size()).append(' ').append(visitedScenes)
+				.append('\n');
+
+		append(sb, "Crashes", crashes);
+		append(sb, "Dead-ends", deadEnds);
+		append(sb, "Errors", errors);
+
+		return sb.toString();
+	}
+
+	private void append(StringBuilder sb, String title, ArrayList<String> l) {
+		sb.append(title).append(": ").append(l.size()).append('\n');
+
+		for (String s : l)
+			sb.append("  ").append(s).append('\n');
+	}
+
+	@Override
+	public void resize(int width, int height) {
+	}
+
+	@Override
+	public void pause() {
+	}
+
+	@Override
+	public void resume() {
+	}
+
+	@Override
+	public void dispose() {
+		if (!finished)
+			finish();
+
+		World.getInstance().dispose();
+	}
+
+	/**
+	 * Sets a GL implementation that does nothing when there is no GL context,
+	 * so the textures and shaders can be created. The created objects are
+	 * valid and the status queries succeed.
+	 */
+	static synchronized void installNoopGL() {
+		if (Gdx.gl != null)
+			return;
+
+		Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+						String name = m.getName();
+						Class<?> type = m.getReturnType();
+
+						if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+							IntBuffer params = (IntBuffer) args[2];
+							params.put(params.position(), 1);
+						}
+
+						if (type == int.class) {
+							if (name.equals("glCheckFramebufferStatus"))
+								return GL20.GL_FRAMEBUFFER_COMPLETE;
+
+							return name.startsWith("glCreate") || name.startsWith("glGen") ? 1 : 0;
+						} else if (type == boolean.class) {
+							return false;
+						} else if (type == float.class) {
+							return 0f;
+						} else if (type == String.class) {
+							return "";
+						}
+
+						return null;
+					}
+				});
+	}
+}
@@ -18,6 +18,7 @@ package com.bladecoder.engine.i18n;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
+import com.bladecoder.engine.util.EngineContext;
 import com.bladecoder.engine.util.EngineLogger;
 
 public class I18N {
@@ -25,53 +26,57 @@ public class I18N {
 	public static final String ENCODING = "UTF-8";
 	// public static final String ENCODING = "ISO-8859-1";
 
-	private static ResourceBundle i18nWorld;
-	private static ResourceBundle i18nChapter;
+	private static final Bundles globalBundles = new Bundles();
 	private static Locale locale = Locale.getDefault();
-	
-	private static String i18nChapterFilename = null;
-	private static String i18nWorldFilename = null;
 
 	public static void loadChapter(String i18nChapterFilename) {
+		Bundles b = bundles();
+
 		try {
-			i18nChapter = ResourceBundle.getBundle(i18nChapterFilename, locale, new I18NControl(ENCODING));
-			I18N.i18nChapterFilename = i18nChapterFilename;
+			b.chapter = ResourceBundle.getBundle(i18nChapterFilename, locale, new I18NControl(ENCODING));
+			b.chapterFilename = i18nChapterFilename;
 		} catch (Exception e) {
-			EngineLogger.error("ERROR LOADING BUNDLE: " + i18nChapter);
+			EngineLogger.error("ERROR LOADING BUNDLE: " + b.chapter);
 		}
 	}
 
 	public static void loadWorld(String i18nWorldFilename) {
+		Bundles b = bundles();
+
 		try {
 			ResourceBundle.clearCache();
-			i18nWorld = ResourceBundle.getBundle(i18nWorldFilename, locale, new I18NControl(ENCODING));
-			I18N.i18nWorldFilename = i18nWorldFilename;
+			b.world = ResourceBundle.getBundle(i18nWorldFilename, locale, new I18NControl(ENCODING));
+			b.worldFilename = i18nWorldFilename;
 		} catch (Exception e) {
-			EngineLogger.error("ERROR LOADING BUNDLE: " + i18nWorld);
+			EngineLogger.error("ERROR LOADING BUNDLE: " + b.world);
 		}
 	}
 
 	public static void setLocale(Locale l) {
+		Bundles b = bundles();
+
 		locale = l;
 
 		// RELOAD TRANSLATIONS
-		if (i18nWorld != null) {
+		if (b.world != null) {
 //			loadWorld(i18nWorld.getBaseBundleName());
-			loadWorld(i18nWorldFilename);
+			loadWorld(b.worldFilename);
 		}
 
-		if (i18nChapter != null) {
+		if (b.chapter != null) {
 //			loadChapter(i18nChapter.getBaseBundleName());
-			loadChapter(i18nChapterFilename);
+			loadChapter(b.chapterFilename);
 		}
 	}
 
 	public static String getString(String key) {
+		Bundles b = bundles();
+
 		try {
-			return i18nChapter.getString(key);
+			return b.chapter.getString(key);
 		} catch (Exception e) {
 			try {
-				return i18nWorld.getString(key);
+				return b.world.getString(key);
 			} catch (Exception e2) {
 				EngineLogger.error("MISSING TRANSLATION KEY: " + key);
 				return key;
@@ -82,4 +87,31 @@ public class I18N {
 	public static Locale getCurrentLocale() {
 		return locale;
 	}
+
+	/**
+	 * The translations of the engine context bound to the thread or the
+	 * global ones.
+	 */
+	private static Bundles bundles() {
+		EngineContext ctx = EngineContext.current();
+
+		if (ctx == null)
+			return globalBundles;
+
+		Bundles b = ctx.get(Bundles.class);
+
+		if (b == null) {
+			b = new Bundles();
+			ctx.put(Bundles.class, b);
+		}
+
+		return b;
+	}
+
+	private static class Bundles {
+		ResourceBundle world;
+		ResourceBundle chapter;
+		String worldFilename;
+		String chapterFilename;
+	}
 }
@@ -36,6 +36,12 @@ public interface AnimationRenderer extends ActorRenderer {
 	public void startAnimation(String id, Tween.Type repeatType,
 			int count, ActionCallback cb, Vector2 p0, Vector2 pf);
 	
+	/**
+	 * Hint to start loading the animation assets, without waiting, before the
+	 * animation is started.
+	 */
+	public void warmAnimation(String id);
+
 	public void addAnimation(AnimationDesc anim);
 	public void setInitAnimation(String anim);
 	public String getInitAnimation();
@@ -34,6 +34,7 @@ import com.bladecoder.engine.anim.AtlasAnimationDesc;
 import com.bladecoder.engine.anim.FATween;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.ActionCallbackSerialization;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.RectangleRenderer;
 import com.bladecoder.engine.util.SerializationHelper;
@@ -58,6 +59,19 @@ public class AtlasRenderer implements AnimationRenderer {
 	private final HashMap<String, AtlasCacheEntry> sourceCache = new HashMap<String, AtlasCacheEntry>();
 	private Polygon bbox;
 
+	/**
+	 * Animation waiting for its atlas to be loaded. The current animation is
+	 * shown meanwhile.
+	 */
+	private AtlasAnimationDesc pendingAnimation;
+	private String pendingId;
+	private Tween.Type pendingRepeatType;
+	private int pendingCount;
+	private ActionCallback pendingCb;
+
+	/** Source loaded by warmAnimation() and not used by an animation yet */
+	private String warmSource;
+
 	class AtlasCacheEntry {
 		int refCounter;
 	}
@@ -96,6 +110,10 @@ public class AtlasRenderer implements AnimationRenderer {
 
 	@Override
 	public void update(float delta) {
+		// The asset manager queue is updated by the world
+		if (pendingAnimation != null && EngineAssetManager.getInstance().isAtlasLoaded(pendingAnimation.source))
+			startPendingAnimation();
+
 		if (faTween != null) {
 			faTween.update(delta);
 			if (faTween.isComplete()) {
@@ -172,6 +190,7 @@ public class AtlasRenderer implements AnimationRenderer {
 		if (id == null)
 			id = initAnimation;
 
+		boolean prevFlipX = flipX;
 		AtlasAnimationDesc fa = getAnimation(id);
 
 		if (fa == null) {
@@ -180,6 +199,30 @@ public class AtlasRenderer implements AnimationRenderer {
 			return;
 		}
 
+		// the warmed source is now owned by the animation
+		if (fa.source.equals(warmSource))
+			warmSource = null;
+
+		// If the source is not loaded, keep showing the current animation and
+		// start the new one when the atlas is loaded.
+		if (fa.regions == null && !isSourceReady(fa.source)) {
+			flipX = prevFlipX;
+			pendingAnimation = fa;
+			pendingId = id;
+			pendingRepeatType = repeatType;
+			pendingCount = count;
+			pendingCb = cb;
+
+			// the animation doesn't wait for the prefetched scene
+			EngineAssetManager.getInstance().cancelBackgroundLoad();
+
+			return;
+		}
+
+		pendingAnimation = null;
+		pendingId = null;
+		pendingCb = null;
+
 		if (currentAnimation != null && currentAnimation.disposeWhenPlayed) {
 			disposeSource(currentAnimation.source);
 			currentAnimation.regions = null;
@@ -234,6 +277,46 @@ public class AtlasRenderer implements AnimationRenderer {
 		computeBbox();
 	}
 
+	private void startPendingAnimation() {
+		startAnimation(pendingId, pendingRepeatType, pendingCount, pendingCb);
+	}
+
+	/**
+	 * Only one source is warmed at a time. If it has not been used by an
+	 * animation when another one is warmed, it is released.
+	 */
+	@Override
+	public void warmAnimation(String id) {
+		boolean prevFlipX = flipX;
+		AtlasAnimationDesc fa = getAnimation(id);
+		flipX = prevFlipX;
+
+		if (fa == null || fa.regions != null)
+			return;
+
+		AtlasCacheEntry entry = sourceCache.get(fa.source);
+
+		// already loaded or queued
+		if (entry != null && entry.refCounter > 0)
+			return;
+
+		releaseWarmSource();
+		loadSource(fa.source);
+		warmSource = fa.source;
+	}
+
+	private void releaseWarmSource() {
+		if (warmSource == null)
+			return;
+
+		String s = warmSource;
+		warmSource = null;
+
+		if ((currentAnimation == null || !s.equals(currentAnimation.source))
+				&& (pendingAnimation == null || !s.equals(pendingAnimation.source)))
+			disposeSource(s);
+	}
+
 	public int getNumFrames() {
 		return currentAnimation.regions.size;
 	}
@@ -412,10 +495,25 @@ public class AtlasRenderer implements AnimationRenderer {
 	private void retrieveSource(String source) {
 		AtlasCacheEntry entry = sourceCache.get(source);
 
-		if (entry == null || entry.refCounter < 1) {
+		if (entry == null || entry.refCounter < 1)
 			loadSource(source);
+
+		if (!EngineAssetManager.getInstance().isAtlasLoaded(source))
 			EngineAssetManager.getInstance().finishLoading();
-		}
+	}
+
+	/**
+	 * Queues the source to load if it is not loaded. Doesn't wait.
+	 * 
+	 * @return true if the source is loaded.
+	 */
+	private boolean isSourceReady(String source) {
+		AtlasCacheEntry entry = sourceCache.get(source);
+
+		if (entry == null || entry.refCounter < 1)
+			loadSource(source);
+
+		return EngineAssetManager.getInstance().isAtlasLoaded(source);
 	}
 
 	private void disposeSource(String source) {
@@ -449,6 +547,18 @@ public class AtlasRenderer implements AnimationRenderer {
 			if (fa != null && !fa.preload)
 				loadSource(fa.source);
 		}
+
+		// the animation pending when the state was saved or the scene disposed
+		if (pendingId != null) {
+			boolean prevFlipX = flipX;
+			pendingAnimation = getAnimation(pendingId);
+			flipX = prevFlipX;
+
+			if (pendingAnimation != null)
+				loadSource(pendingAnimation.source);
+			else
+				pendingId = null;
+		}
 	}
 
 	@Override
@@ -479,6 +589,9 @@ public class AtlasRenderer implements AnimationRenderer {
 			startAnimation(initAnimation, Tween.Type.SPRITE_DEFINED, 1, null);
 		}
 
+		if (pendingAnimation != null)
+			startPendingAnimation();
+
 		computeBbox();
 	}
 
@@ -490,6 +603,11 @@ public class AtlasRenderer implements AnimationRenderer {
 		}
 
 		sourceCache.clear();
+		warmSource = null;
+
+		// the pending animation id and callback are kept, the animation is
+		// started when the assets are loaded again
+		pendingAnimation = null;
 	}
 
 	@Override
@@ -512,6 +630,14 @@ public class AtlasRenderer implements AnimationRenderer {
 			json.writeValue("currentFrameIndex", currentFrameIndex);
 
 			json.writeValue("faTween", faTween, faTween == null ? null : FATween.class);
+
+			// The pending animation is started when the state is loaded
+			if (pendingId != null) {
+				json.writeValue("pendingAnimation", pendingId);
+				json.writeValue("pendingRepeatType", pendingRepeatType);
+				json.writeValue("pendingCount", pendingCount);
+				json.writeValue("pendingCb", ActionCallbackSerialization.find(pendingCb));
+			}
 		}
 	}
 
@@ -537,6 +663,14 @@ public class AtlasRenderer implements AnimationRenderer {
 			
 			if(faTween != null)
 				faTween.setTarget(this);
+
+			pendingId = json.readValue("pendingAnimation", String.class, jsonData);
+
+			if (pendingId != null) {
+				pendingRepeatType = json.readValue("pendingRepeatType", Tween.Type.class, jsonData);
+				pendingCount = json.readValue("pendingCount", Integer.class, jsonData);
+				pendingCb = ActionCallbackSerialization.find(json.readValue("pendingCb", String.class, jsonData));
+			}
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.bladecoder.engine.util.BinaryJsonReader;
+import com.bladecoder.engine.util.BinaryJsonWriter;
+
+/**
+ * Precompiled chapter: the chapter model in the {@link BinaryJsonWriter}
+ * format with a string table shared by all the scenes and the position of
+ * every scene, so they can be read when needed by the {@link LazySceneMap}.
+ *
+ * Format: magic, version, string table, scene index (id, offset, length),
+ * chapter offset and length and the data of the chapter (without scenes) and
+ * every scene.
+ *
+ * @author rgarcia
+ */
+public class ChapterBundle {
+	public static final int MAGIC = 0x424C4342; // "BLCB"
+	public static final int VERSION = 1;
+
+	private final byte[] data;
+	private final int dataStart;
+
+	private final ArrayList<String> strings = new ArrayList<String>();
+	/** Read-only view shared by the scene readers */
+	private final List<String> stringTable = Collections.unmodifiableList(strings);
+	private final LinkedHashMap<String, int[]> scenes = new LinkedHashMap<String, int[]>();
+	private final int[] chapter = new int[2];
+
+	public ChapterBundle(byte[] data) throws IOException {
+		this.data = data;
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+		try {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a chapter bundle");
+
+			int version = in.readUnsignedByte();
+
+			if (version != VERSION)
+				throw new IOException("Unsupported chapter bundle version: " + version);
+
+			int n = in.readInt();
+
+			for (int i = 0; i < n; i++)
+				strings.add(in.readUTF());
+
+			n = in.readInt();
+
+			for (int i = 0; i < n; i++) {
+				String id = in.readUTF();
+				scenes.put(id, new int[] { in.readInt(), in.readInt() });
+			}
+
+			chapter[0] = in.readInt();
+			chapter[1] = in.readInt();
+
+			dataStart = data.length - in.available();
+		} finally {
+			StreamUtils.closeQuietly(in);
+		}
+	}
+
+	public static boolean isBundle(FileHandle file) {
+		if (!file.exists())
+			return false;
+
+		DataInputStream in = new DataInputStream(file.read());
+
+		try {
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			StreamUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * @return the chapter with an empty 'scenes' object.
+	 */
+	public JsonValue getChapter() throws IOException {
+		return parse(chapter);
+	}
+
+	/**
+	 * The offset and length of every scene.
+	 */
+	public Map<String, int[]> getSceneIndex() {
+		return Collections.unmodifiableMap(scenes);
+	}
+
+	public JsonValue parse(int[] range) throws IOException {
+		return new BinaryJsonReader().parse(new ByteArrayInputStream(data, dataStart + range[0], range[1]),
+				stringTable);
+	}
+
+	/**
+	 * Compiles a parsed chapter model into a bundle.
+	 */
+	public static void write(JsonValue chapterModel, OutputStream output) throws IOException {
+		JsonValue jsonScenes = chapterModel.get("scenes");
+		ArrayList<String> table = new ArrayList<String>();
+
+		// First pass fills the string table. Second pass only references it.
+		for (int pass = 0; pass < 2; pass++) {
+			ByteArrayOutputStream blobs = new ByteArrayOutputStream();
+			ArrayList<String> ids = new ArrayList<String>();
+			ArrayList<int[]> ranges = new ArrayList<int[]>();
+
+			int[] chapterRange = writeChapter(chapterModel, blobs, table);
+
+			if (jsonScenes != null) {
+				for (JsonValue s = jsonScenes.child; s != null; s = s.next) {
+					int start = blobs.size();
+					BinaryJsonWriter w = new BinaryJsonWriter(blobs, table);
+					w.writeTree(s);
+					w.flush();
+
+					ids.add(s.name);
+					ranges.add(new int[] { start, blobs.size() - start });
+				}
+			}
+
+			if (pass == 0)
+				continue;
+
+			DataOutputStream out = new DataOutputStream(output);
+
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+
+			out.writeInt(table.size());
+			for (String str : table)
+				out.writeUTF(str);
+
+			out.writeInt(ids.size());
+			for (int i = 0; i < ids.size(); i++) {
+				out.writeUTF(ids.get(i));
+				out.writeInt(ranges.get(i)[0]);
+				out.writeInt(ranges.get(i)[1]);
+			}
+
+			out.writeInt(chapterRange[0]);
+			out.writeInt(chapterRange[1]);
+
+			blobs.writeTo(out);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Writes the chapter fields except the scenes.
+	 */
+	private static int[] writeChapter(JsonValue chapterModel, ByteArrayOutputStream blobs, ArrayList<String> table)
+			throws IOException {
+		int start = blobs.size();
+		BinaryJsonWriter w = new BinaryJsonWriter(blobs, table);
+
+		w.object();
+
+		for (JsonValue v = chapterModel.child; v != null; v = v.next) {
+			w.name(v.name);
+
+			if (v.name.equals("scenes")) {
+				w.object();
+				w.pop();
+			} else {
+				w.writeTree(v);
+			}
+		}
+
+		w.pop();
+		w.flush();
+
+		return new int[] { start, blobs.size() - start };
+	}
+}
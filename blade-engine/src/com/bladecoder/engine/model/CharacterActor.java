@@ -21,6 +21,7 @@ import java.util.HashMap;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.ActionCallback;
@@ -28,6 +29,8 @@ import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.anim.SpritePosTween;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.anim.WalkTween;
+import com.bladecoder.engine.polygonalpathfinder.PathfindingService;
+import com.bladecoder.engine.polygonalpathfinder.PathfindingService.PathRequest;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.SerializationHelper;
 import com.bladecoder.engine.util.SerializationHelper.Mode;
@@ -49,6 +52,9 @@ public class CharacterActor extends SpriteActor {
 
 	private HashMap<String, Dialog> dialogs;
 
+	/** The pending path request when walking with goToAsync */
+	private transient PathRequest pathRequest;
+
 	public Color getTextColor() {
 		return textColor;
 	}
@@ -163,6 +169,8 @@ public class CharacterActor extends SpriteActor {
 
 		Vector2 p0 = new Vector2(bbox.getX(), bbox.getY());
 
+		cancelPathRequest();
+
 		// stop previous movement
 		if (tweens.size() > 0) {
 			removeTween(SpritePosTween.class);
@@ -186,6 +194,43 @@ public class CharacterActor extends SpriteActor {
 			walkingPath = scene.getPolygonalNavGraph().findPath(p0.x, p0.y, pf.x, pf.y);
 		}
 
+		walk(walkingPath, cb);
+	}
+
+	/**
+	 * Walking Support. The path is calculated by the
+	 * {@link PathfindingService} out of the main thread, and the character
+	 * starts walking when the path is solved. Useful for NPCs where the walk
+	 * doesn't need to start in the same frame.
+	 * 
+	 * @param pf
+	 *            Final position to walk
+	 * @param cb
+	 *            The action callback
+	 */
+	public void goToAsync(Vector2 pf, ActionCallback cb) {
+		if (scene.getPolygonalNavGraph() == null || Vector2.dst(bbox.getX(), bbox.getY(), pf.x, pf.y) < 2.0f) {
+			goTo(pf, cb);
+			return;
+		}
+
+		cancelPathRequest();
+
+		AsyncWalkCallback walkCb = new AsyncWalkCallback(cb);
+
+		pathRequest = World.getInstance().getPathfindingService().findPath(scene.getPolygonalNavGraph(), bbox.getX(),
+				bbox.getY(), pf.x, pf.y, walkCb);
+		walkCb.request = pathRequest;
+	}
+
+	private void cancelPathRequest() {
+		if (pathRequest != null) {
+			pathRequest.cancel();
+			pathRequest = null;
+		}
+	}
+
+	private void walk(ArrayList<Vector2> walkingPath, ActionCallback cb) {
 		if (walkingPath == null || walkingPath.size() == 0) {
 			// call the callback even when the path is empty
 			if (cb != null)
@@ -221,6 +266,40 @@ public class CharacterActor extends SpriteActor {
 		return dialogs;
 	}
 
+	/**
+	 * Starts walking when the path requested in goToAsync is solved.
+	 */
+	private class AsyncWalkCallback implements ActionCallback {
+		private final ActionCallback cb;
+		private PathRequest request;
+
+		AsyncWalkCallback(ActionCallback cb) {
+			this.cb = cb;
+		}
+
+		@Override
+		public void resume() {
+			if (pathRequest != request)
+				return;
+
+			pathRequest = null;
+
+			FloatArray points = request.getPath();
+			ArrayList<Vector2> walkingPath = new ArrayList<Vector2>(points.size / 2);
+
+			for (int i = 0; i < points.size; i += 2)
+				walkingPath.add(new Vector2(points.get(i), points.get(i + 1)));
+
+			// stop previous movement
+			if (tweens.size() > 0) {
+				removeTween(SpritePosTween.class);
+				stand();
+			}
+
+			walk(walkingPath, cb);
+		}
+	}
+
 	@Override
 	public String toString() {
 		StringBuffer sb = new StringBuffer(super.toString());
@@ -282,4 +361,4 @@ public class CharacterActor extends SpriteActor {
 		textColor = json.readValue("textColor", Color.class, jsonData);
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+/**
+ * Notified when a verb is run or a dialog option is selected. Used by the test
+ * tools to know the parts of the game reached.
+ * 
+ * @author rgarcia
+ */
+public interface CoverageListener {
+	/**
+	 * Called before running the verb.
+	 */
+	void verbRun(Verb v);
+
+	/**
+	 * Called before running the option verb.
+	 */
+	void dialogOptionSelected(Dialog d, DialogOption o);
+}
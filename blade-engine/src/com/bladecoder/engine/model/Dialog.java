@@ -54,6 +54,11 @@ public class Dialog implements Serializable {
 
 		currentOption = options.indexOf(o);
 
+		CoverageListener l = World.getInstance().getCoverageListener();
+
+		if (l != null)
+			l.dialogOptionSelected(this, o);
+
 		String v = o.getVerbId();
 
 		if (v == null)
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Writes the game state files. The state is serialized and the screenshot is
+ * grabbed in the main thread into a {@link Snapshot}. The screenshot encoding
+ * and the file writing are done in a background thread.
+ *
+ * Files are written to a temporary file and renamed when complete. The
+ * previous file is kept with the '.bak' extension, so an interrupted save
+ * never corrupts the previous one. The screenshot is replaced the same way
+ * after the state, so it never shows a state that was not saved.
+ *
+ * @author rgarcia
+ */
+public class GameStateSaver {
+	public static final String TMP_EXT = ".tmp";
+	public static final String BACKUP_EXT = ".bak";
+
+	public interface SaveListener {
+		/**
+		 * Called in the main thread when the save finishes.
+		 * 
+		 * @param error
+		 *            null if the state was saved.
+		 */
+		void saved(String filename, IOException error);
+	}
+
+	/**
+	 * The serialized state and screenshot. Not modified after creation.
+	 */
+	public static class Snapshot {
+		final FileHandle file;
+		final byte[] data;
+		/** Not flipped. Disposed after writing */
+		final Pixmap screenshot;
+		final FileHandle screenshotFile;
+
+		public Snapshot(FileHandle file, byte[] data, Pixmap screenshot, FileHandle screenshotFile) {
+			this.file = file;
+			this.data = data;
+			this.screenshot = screenshot;
+			this.screenshotFile = screenshotFile;
+		}
+	}
+
+	private ExecutorService executor;
+	private Future<?> last;
+
+	/**
+	 * Writes the snapshot in the background thread.
+	 * 
+	 * @param listener
+	 *            can be null.
+	 */
+	public void saveAsync(final Snapshot snapshot, final SaveListener listener) {
+		last = getExecutor().submit(new Runnable() {
+			@Override
+			public void run() {
+				IOException error = null;
+				long initTime = System.currentTimeMillis();
+
+				try {
+					write(snapshot);
+				} catch (IOException e) {
+					EngineLogger.error("ERROR SAVING GAME", e);
+					error = e;
+				}
+
+				EngineLogger.debug("GAME STATE ASYNC WRITING TIME (ms): " + (System.currentTimeMillis() - initTime));
+
+				if (listener != null) {
+					final IOException e = error;
+
+					Gdx.app.postRunnable(new Runnable() {
+						@Override
+						public void run() {
+							listener.saved(snapshot.file.name(), e);
+						}
+					});
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes the snapshot in the calling thread, after the pending saves.
+	 */
+	public void save(Snapshot snapshot) throws IOException {
+		finish();
+		write(snapshot);
+	}
+
+	/**
+	 * Waits for the pending saves to finish.
+	 */
+	public void finish() {
+		if (last == null)
+			return;
+
+		try {
+			last.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			EngineLogger.error("ERROR SAVING GAME", e.getCause());
+		}
+
+		last = null;
+	}
+
+	public void dispose() {
+		finish();
+
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Returns the file to load: the backup if the file doesn't exist because
+	 * the save was interrupted.
+	 */
+	public static FileHandle getSavedFile(FileHandle file) {
+		FileHandle backup = getBackup(file);
+
+		if (!file.exists() && backup.exists())
+			return backup;
+
+		return file;
+	}
+
+	public static FileHandle getBackup(FileHandle file) {
+		return file.sibling(file.name() + BACKUP_EXT);
+	}
+
+	private static void write(Snapshot snapshot) throws IOException {
+		FileHandle tmp = snapshot.file.sibling(snapshot.file.name() + TMP_EXT);
+		boolean saved = false;
+
+		try {
+			OutputStream os = tmp.write(false);
+
+			try {
+				os.write(snapshot.data);
+				os.flush();
+
+				if (os instanceof FileOutputStream)
+					((FileOutputStream) os).getFD().sync();
+			} finally {
+				os.close();
+			}
+
+			replace(tmp, snapshot.file);
+			saved = true;
+		} finally {
+			// the previous screenshot is kept with the previous state
+			if (!saved && snapshot.screenshot != null)
+				snapshot.screenshot.dispose();
+		}
+
+		if (snapshot.screenshot != null)
+			writeScreenshot(snapshot.screenshot, snapshot.screenshotFile);
+	}
+
+	/**
+	 * Renames the complete temporary file to the file. The previous file is
+	 * kept as backup until the new one is in place.
+	 */
+	private static void replace(FileHandle tmp, FileHandle file) throws IOException {
+		if (file.exists()) {
+			FileHandle backup = getBackup(file);
+
+			backup.delete();
+			rename(file, backup);
+		}
+
+		rename(tmp, file);
+	}
+
+	/**
+	 * FileHandle.moveTo() copies and deletes when the rename fails, so the
+	 * file could be left half written. In that case the temporary and backup
+	 * files are left and the backup is loaded, see {@link #getSavedFile}.
+	 */
+	private static void rename(FileHandle from, FileHandle to) throws IOException {
+		if (!from.file().renameTo(to.file()))
+			throw new IOException("Error renaming " + from.path() + " to " + to.path());
+	}
+
+	/**
+	 * Flips the screenshot, writes it as PNG and disposes it. The state is
+	 * saved without screenshot if it fails.
+	 */
+	static void writeScreenshot(Pixmap pixmap, FileHandle file) {
+		try {
+			flipY(pixmap);
+
+			FileHandle tmp = file.sibling(file.name() + TMP_EXT);
+			PixmapIO.writePNG(tmp, pixmap);
+
+			replace(tmp, file);
+		} catch (Exception e) {
+			EngineLogger.error("ERROR SAVING SCREENSHOT", e);
+		} finally {
+			pixmap.dispose();
+		}
+	}
+
+	private static void flipY(Pixmap pixmap) {
+		int w = pixmap.getWidth();
+		int h = pixmap.getHeight();
+
+		ByteBuffer pixels = pixmap.getPixels();
+		int numBytes = w * h * 4;
+		byte[] lines = new byte[numBytes];
+		int numBytesPerLine = w * 4;
+		for (int i = 0; i < h; i++) {
+			pixels.position((h - i - 1) * numBytesPerLine);
+			pixels.get(lines, i * numBytesPerLine, numBytesPerLine);
+		}
+		pixels.clear();
+		pixels.put(lines);
+	}
+
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "GameStateSaver");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+
+		return executor;
+	}
+}
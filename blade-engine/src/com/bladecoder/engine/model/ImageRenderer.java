@@ -152,6 +152,11 @@ public class ImageRenderer implements AnimationRenderer {
 		return (HashMap<String, AnimationDesc>) fanims;
 	}
 
+	@Override
+	public void warmAnimation(String id) {
+		// Nothing to warm, the assets are loaded with the actor
+	}
+
 	@Override
 	public void startAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb) {
 		AnimationDesc fa = getAnimation(id);
@@ -106,24 +106,28 @@ public class InteractiveActor extends BaseActor implements AssetConsumer, Compar
 
 	@Override
 	public void update(float delta) {
-		InteractiveActor player = scene.getPlayer();
-		if (visible && player != null) {
-			boolean hit = hit(player.getX(), player.getY());
-			if (!hit && playerInside) {
-				// the player leaves
-				playerInside = false;
-
-				Verb v = getVerb("exit");
-				if (v != null)
-					v.run();
-			} else if (hit && !playerInside) {
-				// the player enters
-				playerInside = true;
-
-				Verb v = getVerb("enter");
-				if (v != null)
-					v.run();
-			}
+		// the enter/exit verbs are triggered by the scene TriggerZones
+	}
+
+	/**
+	 * Runs the enter/exit verbs if the player enters or leaves the actor.
+	 */
+	void checkPlayerInside(float x, float y) {
+		boolean hit = hit(x, y);
+		if (!hit && playerInside) {
+			// the player leaves
+			playerInside = false;
+
+			Verb v = getVerb(Verb.EXIT_VERB);
+			if (v != null)
+				v.run();
+		} else if (hit && !playerInside) {
+			// the player enters
+			playerInside = true;
+
+			Verb v = getVerb(Verb.ENTER_VERB);
+			if (v != null)
+				v.run();
 		}
 	}
 
@@ -255,7 +259,7 @@ public class InteractiveActor extends BaseActor implements AssetConsumer, Compar
 
 	@Override
 	public int compareTo(InteractiveActor o) {
-		return (int) (o.getBBox().getY() - this.getBBox().getY());
+		return Float.compare(o.getBBox().getY(), this.getBBox().getY());
 	}
 
 	@Override
@@ -0,0 +1,534 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.SerializationException;
+import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.SerializationHelper;
+import com.bladecoder.engine.util.SerializationHelper.Mode;
+
+/**
+ * Scene map for the chapter that reads every scene from the chapter file the
+ * first time it is requested.
+ *
+ * When the chapter is indexed, the JSON of every scene is copied and the
+ * chapter file content is released. The scene JSON is parsed and read when
+ * the scene is accessed with 'get()', and then released. Iterating over the
+ * keys or the entries doesn't load the scenes, only getting the entry value
+ * does, so iterating over the values loads all the scenes.
+ *
+ * The scenes can also be read from a precompiled {@link ChapterBundle}.
+ *
+ * @author rgarcia
+ */
+public class LazySceneMap extends AbstractMap<String, Scene> {
+
+	public interface SceneLoadListener {
+		/**
+		 * Called when a scene is read from the chapter file.
+		 */
+		void sceneLoaded(Scene s);
+	}
+
+	/** The chapter file content. Only used while indexing */
+	private char[] data;
+	private ChapterBundle bundle;
+
+	/** JSON of the scenes not loaded yet when read from the chapter file */
+	private final HashMap<String, char[]> sources = new HashMap<String, char[]>();
+
+	/**
+	 * Offset and length of the scenes not loaded yet when read from the
+	 * bundle
+	 */
+	private final HashMap<String, int[]> offsets = new HashMap<String, int[]>();
+	private final HashMap<String, Scene> loaded = new HashMap<String, Scene>();
+	private final LinkedHashSet<String> ids = new LinkedHashSet<String>();
+
+	private final Json json = new Json();
+	private final SceneLoadListener listener;
+
+	/** Scanner state */
+	private int pos;
+
+	public LazySceneMap(char[] data, SceneLoadListener listener) {
+		this.data = data;
+		this.listener = listener;
+
+		json.setIgnoreUnknownFields(true);
+	}
+
+	/**
+	 * Creates the map from a chapter bundle. The scenes are already indexed.
+	 */
+	public LazySceneMap(ChapterBundle bundle, SceneLoadListener listener) {
+		this.bundle = bundle;
+		this.listener = listener;
+
+		json.setIgnoreUnknownFields(true);
+
+		for (Entry<String, int[]> e : bundle.getSceneIndex().entrySet()) {
+			offsets.put(e.getKey(), e.getValue());
+			ids.add(e.getKey());
+		}
+	}
+
+	/**
+	 * Indexes the scenes of the chapter.
+	 * 
+	 * @return the chapter without the scenes, to read the other chapter
+	 *         fields.
+	 */
+	public JsonValue index() {
+		pos = 0;
+
+		skipWhitespace();
+		expect('{');
+		pos++;
+
+		while (true) {
+			skipWhitespace();
+
+			if (data[pos] == '}')
+				break;
+
+			String name = readName();
+			skipWhitespace();
+
+			if (name.equals("scenes")) {
+				int start = pos;
+
+				indexScenes();
+
+				// Parse the chapter with an empty scene object
+				int length = data.length - (pos - start) + 2;
+				char[] chapter = new char[length];
+				System.arraycopy(data, 0, chapter, 0, start);
+				chapter[start] = '{';
+				chapter[start + 1] = '}';
+				System.arraycopy(data, pos, chapter, start + 2, data.length - pos);
+
+				data = null;
+
+				return new JsonReader().parse(chapter, 0, length);
+			}
+
+			skipValue();
+		}
+
+		JsonValue chapter = new JsonReader().parse(data, 0, data.length);
+		data = null;
+
+		return chapter;
+	}
+
+	private void indexScenes() {
+		expect('{');
+		pos++;
+
+		while (true) {
+			skipWhitespace();
+
+			if (data[pos] == '}') {
+				pos++;
+				break;
+			}
+
+			String id = readName();
+			skipWhitespace();
+
+			int start = pos;
+			skipValue();
+
+			sources.put(id, Arrays.copyOfRange(data, start, pos));
+			ids.add(id);
+		}
+	}
+
+	@Override
+	public Scene get(Object key) {
+		Scene s = loaded.get(key);
+
+		if (s == null && isPending(key))
+			s = load((String) key);
+
+		return s;
+	}
+
+	private boolean isPending(Object id) {
+		return sources.containsKey(id) || offsets.containsKey(id);
+	}
+
+	private Scene load(String id) {
+		long initTime = System.currentTimeMillis();
+		char[] source = sources.remove(id);
+		int[] o = offsets.remove(id);
+
+		Mode prevMode = SerializationHelper.getInstance().getMode();
+		SerializationHelper.getInstance().setMode(Mode.MODEL);
+
+		Scene s;
+
+		try {
+			JsonValue v = source != null ? new JsonReader().parse(source, 0, source.length) : bundle.parse(o);
+			s = json.readValue(Scene.class, v);
+		} catch (IOException e) {
+			throw new SerializationException("Error reading scene from chapter bundle: " + id, e);
+		} finally {
+			SerializationHelper.getInstance().setMode(prevMode);
+		}
+
+		loaded.put(id, s);
+
+		if (offsets.isEmpty())
+			bundle = null;
+
+		EngineLogger.debug("SCENE LOADED FROM CHAPTER: " + id + " TIME (ms): "
+				+ (System.currentTimeMillis() - initTime));
+
+		if (listener != null)
+			listener.sceneLoaded(s);
+
+		return s;
+	}
+
+	/**
+	 * The scenes already read from the chapter file. Doesn't load the rest.
+	 */
+	public Collection<Scene> getLoadedScenes() {
+		return Collections.unmodifiableCollection(loaded.values());
+	}
+
+	public boolean isLoaded(String id) {
+		return loaded.containsKey(id);
+	}
+
+	/**
+	 * Reads all the scenes not loaded yet.
+	 */
+	public void loadAll() {
+		for (String id : ids.toArray(new String[ids.size()])) {
+			if (isPending(id))
+				load(id);
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return ids.contains(key);
+	}
+
+	@Override
+	public int size() {
+		return ids.size();
+	}
+
+	/**
+	 * The ids of all the scenes. Doesn't load them.
+	 */
+	@Override
+	public Set<String> keySet() {
+		return Collections.unmodifiableSet(ids);
+	}
+
+	@Override
+	public Scene put(String key, Scene value) {
+		Scene old = remove(key);
+
+		loaded.put(key, value);
+		ids.add(key);
+
+		return old;
+	}
+
+	@Override
+	public Scene remove(Object key) {
+		Scene old = loaded.remove(key);
+
+		sources.remove(key);
+		offsets.remove(key);
+		ids.remove(key);
+
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		sources.clear();
+		offsets.clear();
+		loaded.clear();
+		ids.clear();
+		data = null;
+		bundle = null;
+	}
+
+	/**
+	 * The entries of all the scenes. The scene is loaded when the entry value
+	 * is got.
+	 */
+	@Override
+	public Set<Entry<String, Scene>> entrySet() {
+		return new AbstractSet<Entry<String, Scene>>() {
+			@Override
+			public Iterator<Entry<String, Scene>> iterator() {
+				final Iterator<String> it = ids.iterator();
+
+				return new Iterator<Entry<String, Scene>>() {
+					private String id;
+
+					@Override
+					public boolean hasNext() {
+						return it.hasNext();
+					}
+
+					@Override
+					public Entry<String, Scene> next() {
+						id = it.next();
+
+						return new LazyEntry(id);
+					}
+
+					@Override
+					public void remove() {
+						it.remove();
+						loaded.remove(id);
+						sources.remove(id);
+						offsets.remove(id);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return ids.size();
+			}
+		};
+	}
+
+	private class LazyEntry implements Entry<String, Scene> {
+		private final String id;
+
+		LazyEntry(String id) {
+			this.id = id;
+		}
+
+		@Override
+		public String getKey() {
+			return id;
+		}
+
+		@Override
+		public Scene getValue() {
+			return get(id);
+		}
+
+		@Override
+		public Scene setValue(Scene value) {
+			Scene old = get(id);
+			loaded.put(id, value);
+
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+
+			Entry<?, ?> e = (Entry<?, ?>) o;
+
+			Scene v = getValue();
+
+			return id.equals(e.getKey()) && (v == null ? e.getValue() == null : v.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Scene v = getValue();
+
+			return id.hashCode() ^ (v == null ? 0 : v.hashCode());
+		}
+	}
+
+	// ********** CHAPTER SCANNER **********
+	// Only finds where the values start and end. Supports the JSON flavour
+	// accepted by JsonReader: optional quotes and commas, and comments.
+
+	private void expect(char c) {
+		if (pos >= data.length || data[pos] != c)
+			throw new SerializationException("Error indexing chapter: '" + c + "' expected at " + pos);
+	}
+
+	private void skipWhitespace() {
+		while (pos < data.length) {
+			char c = data[pos];
+
+			if (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == ',' || c == '\uFEFF') {
+				pos++;
+			} else if (c == '/' && pos + 1 < data.length && data[pos + 1] == '/') {
+				while (pos < data.length && data[pos] != '\n')
+					pos++;
+			} else if (c == '/' && pos + 1 < data.length && data[pos + 1] == '*') {
+				pos += 2;
+
+				while (pos + 1 < data.length && !(data[pos] == '*' && data[pos + 1] == '/'))
+					pos++;
+
+				pos += 2;
+			} else {
+				break;
+			}
+		}
+
+		if (pos >= data.length)
+			throw new SerializationException("Error indexing chapter: unexpected end of file");
+	}
+
+	private String readName() {
+		char c = data[pos];
+		String name;
+
+		if (c == '"' || c == '\'') {
+			name = readQuoted(c);
+		} else {
+			int start = pos;
+
+			while (pos < data.length && data[pos] != ':' && !Character.isWhitespace(data[pos]))
+				pos++;
+
+			name = new String(data, start, pos - start);
+		}
+
+		skipWhitespace();
+		expect(':');
+		pos++;
+
+		return name;
+	}
+
+	private String readQuoted(char quote) {
+		StringBuilder sb = new StringBuilder();
+
+		pos++;
+
+		while (pos < data.length) {
+			char c = data[pos++];
+
+			if (c == quote)
+				return sb.toString();
+
+			if (c == '\\' && pos < data.length) {
+				c = data[pos++];
+
+				switch (c) {
+				case 'b':
+					c = '\b';
+					break;
+				case 'f':
+					c = '\f';
+					break;
+				case 'n':
+					c = '\n';
+					break;
+				case 'r':
+					c = '\r';
+					break;
+				case 't':
+					c = '\t';
+					break;
+				case 'u':
+					c = (char) Integer.parseInt(new String(data, pos, 4), 16);
+					pos += 4;
+					break;
+				}
+			}
+
+			sb.append(c);
+		}
+
+		throw new SerializationException("Error indexing chapter: unterminated string");
+	}
+
+	private void skipQuoted(char quote) {
+		pos++;
+
+		while (pos < data.length) {
+			char c = data[pos++];
+
+			if (c == quote)
+				return;
+
+			if (c == '\\')
+				pos++;
+		}
+
+		throw new SerializationException("Error indexing chapter: unterminated string");
+	}
+
+	private void skipValue() {
+		char c = data[pos];
+
+		if (c == '"' || c == '\'') {
+			skipQuoted(c);
+		} else if (c == '{' || c == '[') {
+			int depth = 0;
+
+			while (pos < data.length) {
+				c = data[pos];
+
+				if (c == '"' || c == '\'') {
+					skipQuoted(c);
+					continue;
+				}
+
+				if (c == '/' && pos + 1 < data.length && (data[pos + 1] == '/' || data[pos + 1] == '*')) {
+					skipWhitespace();
+					continue;
+				}
+
+				pos++;
+
+				if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					if (--depth == 0)
+						return;
+				}
+			}
+
+			throw new SerializationException("Error indexing chapter: unexpected end of file");
+		} else {
+			// unquoted value
+			while (pos < data.length && data[pos] != ',' && data[pos] != '}' && data[pos] != ']'
+					&& data[pos] != '\n' && data[pos] != '\r')
+				pos++;
+		}
+	}
+}
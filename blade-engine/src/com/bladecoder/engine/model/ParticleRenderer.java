@@ -45,7 +45,7 @@ public class ParticleRenderer implements ActorRenderer {
 	
 	private float tmpPosX = 0;
 	private float tmpPosY = 0;
-	private static final Matrix4 tmp = new Matrix4();
+	private final Matrix4 tmp = new Matrix4();
 
 	public ParticleRenderer() {
 
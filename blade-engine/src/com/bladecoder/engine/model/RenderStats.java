@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+/**
+ * Counters of the last scene frame drawn.
+ */
+public class RenderStats {
+	int drawCalls;
+	int batches;
+	int spritesDrawn;
+	int spritesCulled;
+
+	void reset() {
+		drawCalls = 0;
+		batches = 0;
+		spritesDrawn = 0;
+		spritesCulled = 0;
+	}
+
+	/**
+	 * @return the GL draw calls issued by the sprite batch.
+	 */
+	public int getDrawCalls() {
+		return drawCalls;
+	}
+
+	/**
+	 * @return the number of batch begin/end pairs.
+	 */
+	public int getBatches() {
+		return batches;
+	}
+
+	public int getSpritesDrawn() {
+		return spritesDrawn;
+	}
+
+	public int getSpritesCulled() {
+		return spritesCulled;
+	}
+
+	@Override
+	public String toString() {
+		return "draw calls: " + drawCalls + ", batches: " + batches + ", sprites: " + spritesDrawn + ", culled: "
+				+ spritesCulled;
+	}
+}
@@ -95,6 +95,14 @@ public class Scene implements Serializable, AssetConsumer {
 
 	private VerbManager verbs = new VerbManager();
 
+	/** The actors with enter/exit verbs */
+	private final TriggerZones triggerZones = new TriggerZones();
+
+	private final RenderStats stats = new RenderStats();
+
+	/** The world area seen by the camera for the layer being drawn */
+	private final Rectangle viewRect = new Rectangle();
+
 	public Scene() {
 	}
 
@@ -170,6 +178,8 @@ public class Scene implements Serializable, AssetConsumer {
 			a.update(delta);
 		}
 
+		triggerZones.update(this);
+
 		camera.update(delta);
 
 		if (followActor != null) {
@@ -178,20 +188,29 @@ public class Scene implements Serializable, AssetConsumer {
 	}
 
 	public void draw(SpriteBatch batch) {
+		stats.reset();
+
+		// consecutive layers with the same parallax are drawn in the same
+		// batch
+		boolean drawing = false;
+		float batchParallax = 1;
 
 		if (background != null) {
-			batch.disableBlending();
 			batch.setProjectionMatrix(camera.calculateParallaxMatrix(1, 1));
+			camera.getParallaxViewRect(1, 1, viewRect);
 			batch.begin();
+			batch.disableBlending();
+			drawing = true;
 
 			float x = 0;
 
 			for (AtlasRegion tile : background) {
-				batch.draw(tile, x, 0f);
+				if (x <= viewRect.x + viewRect.width && x + tile.getRegionWidth() >= viewRect.x)
+					batch.draw(tile, x, 0f);
+
 				x += tile.getRegionWidth();
 			}
 
-			batch.end();
 			batch.enableBlending();
 		}
 
@@ -199,11 +218,41 @@ public class Scene implements Serializable, AssetConsumer {
 		for (int i = layers.size() - 1; i >= 0; i--) {
 			SceneLayer layer = layers.get(i);
 
-			batch.setProjectionMatrix(camera.calculateParallaxMatrix(layer.getParallaxMultiplier(), 1));
-			batch.begin();
-			layer.draw(batch);
-			batch.end();
+			if (!layer.isVisible())
+				continue;
+
+			float parallax = layer.getParallaxMultiplier();
+
+			if (!drawing || parallax != batchParallax) {
+				if (drawing)
+					endBatch(batch);
+
+				batch.setProjectionMatrix(camera.calculateParallaxMatrix(parallax, 1));
+				camera.getParallaxViewRect(parallax, 1, viewRect);
+				batch.begin();
+				drawing = true;
+				batchParallax = parallax;
+			}
+
+			layer.draw(batch, viewRect, stats);
 		}
+
+		if (drawing)
+			endBatch(batch);
+	}
+
+	private void endBatch(SpriteBatch batch) {
+		batch.end();
+
+		stats.drawCalls += batch.renderCalls;
+		stats.batches++;
+	}
+
+	/**
+	 * @return the counters of the last frame drawn.
+	 */
+	public RenderStats getRenderStats() {
+		return stats;
 	}
 
 	public void drawBBoxLines(ShapeRenderer renderer) {
@@ -271,6 +320,7 @@ public class Scene implements Serializable, AssetConsumer {
 	public void addActor(BaseActor actor) {
 		actors.put(actor.getId(), actor);
 		actor.setScene(this);
+		triggerZones.invalidate();
 
 		if (actor instanceof InteractiveActor) {
 			InteractiveActor ia = (InteractiveActor) actor;
@@ -456,6 +506,7 @@ public class Scene implements Serializable, AssetConsumer {
 		}
 
 		BaseActor r = actors.remove(a.getId());
+		triggerZones.invalidate();
 
 		if (r == null) {
 			EngineLogger.error("Removing actor from scene: Actor not found");
@@ -515,7 +566,7 @@ public class Scene implements Serializable, AssetConsumer {
 
 		// CALC WALK GRAPH
 		if (polygonalNavGraph != null) {
-			polygonalNavGraph.createInitialGraph(actors.values());
+			polygonalNavGraph.createInitialGraph(id, actors.values());
 		}
 	}
 
@@ -615,21 +666,41 @@ public class Scene implements Serializable, AssetConsumer {
 			if (sceneSize != null)
 				json.writeValue("sceneSize", sceneSize);
 
+			verbs.write(json);
+
+			if (state != null)
+				json.writeValue("state", state);
+
+			if (player != null)
+				json.writeValue("player", player);
 		} else {
 			SceneActorRef actorRef;
+			StateBaseline baseline = World.getInstance().getStateBaseline();
 
 			json.writeObjectStart("actors");
 			for (BaseActor a : actors.values()) {
+				// Actors not changed since the chapter was loaded are not saved
+				// when the world is writing a delta state
+				if (baseline != null && baseline.isChangesComputed() && !baseline.isDirty(a))
+					continue;
+
 				actorRef = new SceneActorRef(a.getInitScene(), a.getId());
 				json.writeValue(actorRef.toString(), a);
 			}
 			json.writeObjectEnd();
 
-			json.writeValue("camera", camera);
-
-			if (followActor != null)
-				json.writeValue("followActor", followActor.getId());
+			writeStateWithoutActors(json);
 		}
+	}
+
+	/**
+	 * Writes the scene state except the actors.
+	 */
+	void writeStateWithoutActors(Json json) {
+		json.writeValue("camera", camera);
+
+		if (followActor != null)
+			json.writeValue("followActor", followActor.getId());
 
 		verbs.write(json);
 
@@ -643,6 +714,8 @@ public class Scene implements Serializable, AssetConsumer {
 	@SuppressWarnings("unchecked")
 	@Override
 	public void read(Json json, JsonValue jsonData) {
+		triggerZones.invalidate();
+
 		if (SerializationHelper.getInstance().getMode() == Mode.MODEL) {
 
 			id = json.readValue("id", String.class, jsonData);
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.bladecoder.engine.util.Config;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Keeps the assets of the last used scenes loaded to improve performance when
+ * returning to them.
+ *
+ * Scenes are evicted in LRU order when the estimated texture memory of the
+ * cached scenes exceeds the budget. The assets shared with other scenes are
+ * reference counted by the asset manager, so they are only freed when the
+ * last scene using them is disposed.
+ *
+ * @author rgarcia
+ */
+public class SceneCache {
+	/** Max. texture memory in MB. used by the cached scenes */
+	private static final int DEFAULT_BUDGET = 128;
+
+	private final LinkedHashMap<String, CachedScene> scenes = new LinkedHashMap<String, CachedScene>(16, 0.75f,
+			true);
+
+	/** The same scenes, to find them without changing the LRU order */
+	private final HashMap<String, CachedScene> index = new HashMap<String, CachedScene>();
+
+	private final long budget;
+	private long residentBytes;
+
+	private int hits;
+	private int misses;
+
+	public SceneCache() {
+		budget = Config.getProperty(Config.SCENE_CACHE_BUDGET_PROP, DEFAULT_BUDGET) * 1024L * 1024L;
+	}
+
+	/**
+	 * Adds a scene with its assets loaded to the cache. The least recently used
+	 * scenes are disposed if the cache exceeds the budget.
+	 *
+	 * @param bytes
+	 *            the estimated texture memory loaded by the scene.
+	 */
+	public void put(Scene scene, long bytes) {
+		CachedScene old = scenes.remove(scene.getId());
+		index.remove(scene.getId());
+
+		if (old != null) {
+			residentBytes -= old.bytes;
+
+			if (old.scene != scene)
+				old.scene.dispose();
+		}
+
+		CachedScene c = new CachedScene(scene, bytes);
+		scenes.put(scene.getId(), c);
+		index.put(scene.getId(), c);
+		residentBytes += bytes;
+
+		// The most recent scene is only evicted when it doesn't fit alone
+		Iterator<CachedScene> it = scenes.values().iterator();
+
+		while (residentBytes > budget && it.hasNext()) {
+			CachedScene e = it.next();
+
+			EngineLogger.debug("SCENE CACHE: Evicting " + e.scene.getId());
+
+			it.remove();
+			index.remove(e.scene.getId());
+			residentBytes -= e.bytes;
+			e.scene.dispose();
+		}
+	}
+
+	/**
+	 * Removes the scene from the cache without disposing it.
+	 *
+	 * @return the scene estimated texture memory or -1 if the scene is not
+	 *         cached.
+	 */
+	public long take(Scene scene) {
+		CachedScene c = index.get(scene.getId());
+
+		if (c == null || c.scene != scene) {
+			misses++;
+			return -1;
+		}
+
+		hits++;
+		scenes.remove(scene.getId());
+		index.remove(scene.getId());
+		residentBytes -= c.bytes;
+
+		return c.bytes;
+	}
+
+	/**
+	 * Returns the scene if cached, without changing the LRU order.
+	 */
+	public Scene get(String id) {
+		CachedScene c = index.get(id);
+
+		return c == null ? null : c.scene;
+	}
+
+	public boolean contains(Scene scene) {
+		return get(scene.getId()) == scene;
+	}
+
+	/**
+	 * Disposes all the cached scenes.
+	 */
+	public void clear() {
+		for (CachedScene c : scenes.values())
+			c.scene.dispose();
+
+		scenes.clear();
+		index.clear();
+		residentBytes = 0;
+	}
+
+	public int size() {
+		return scenes.size();
+	}
+
+	public long getResidentBytes() {
+		return residentBytes;
+	}
+
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	public float getHitRate() {
+		return hits + misses == 0 ? 0 : (float) hits / (hits + misses);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("scenes: %d, resident: %.1fMB, hits: %d, misses: %d, hit rate: %.0f%%", size(),
+				residentBytes / (1024f * 1024f), hits, misses, getHitRate() * 100);
+	}
+
+	private static class CachedScene {
+		final Scene scene;
+		final long bytes;
+
+		CachedScene(Scene scene, long bytes) {
+			this.scene = scene;
+			this.bytes = bytes;
+		}
+	}
+}
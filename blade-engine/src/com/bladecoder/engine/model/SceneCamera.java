@@ -19,6 +19,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Json;
@@ -29,6 +30,7 @@ import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.anim.CameraTween;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.CullingUtils;
 import com.bladecoder.engine.util.InterpolationMode;
 
 public class SceneCamera extends OrthographicCamera implements Serializable  {
@@ -37,7 +39,7 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 	private static final float START_SCROLLY = 0.15f;
 	
 	// to avoid create new vector when calling getPosition
-	private final static Vector2 tmpPos = new Vector2();
+	private final Vector2 tmpPos = new Vector2();
 
 	private float startScrollDistanceX;
 	private float startScrollDistanceY;
@@ -194,6 +196,14 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 		return parallaxCombined;
 	}
 	
+	/**
+	 * The world area seen through the parallax matrix with the same factors.
+	 */
+	public Rectangle getParallaxViewRect(float parallaxX, float parallaxY, Rectangle out) {
+		return CullingUtils.getParallaxViewRect(position.x, position.y, viewportWidth, viewportHeight, zoom,
+				scrollingWidth, parallaxX, parallaxY, out);
+	}
+	
 	@Override
 	public void write(Json json) {
 		float worldScale = EngineAssetManager.getInstance().getScale();
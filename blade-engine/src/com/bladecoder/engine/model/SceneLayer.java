@@ -6,6 +6,8 @@ import java.util.Comparator;
 import java.util.List;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.bladecoder.engine.util.CullingUtils;
 
 public class SceneLayer {
 	private String name;
@@ -13,25 +15,87 @@ public class SceneLayer {
 	private boolean dynamic;
 	private float parallax = 1.0f;
 	
+	/** false when actors have been added since the last depth sort */
+	transient private boolean sorted = false;
+	
 	transient private final List<InteractiveActor> actors = new ArrayList<InteractiveActor>();
 	
 	public void update() {
-		if(dynamic && visible)
-			Collections.sort(actors);
+		if(dynamic && visible) {
+			if(sorted) {
+				sortMoved();
+			} else {
+				Collections.sort(actors);
+				sorted = true;
+			}
+		}
+	}
+	
+	/**
+	 * Insertion sort. The actors are ordered since the last frame, so only the
+	 * actors that moved past a neighbour are shifted and the cost is O(n) when
+	 * nobody moved. It's stable: actors with the same y keep their order.
+	 */
+	private void sortMoved() {
+		final int size = actors.size();
+		
+		for (int i = 1; i < size; i++) {
+			InteractiveActor a = actors.get(i);
+			int j = i - 1;
+			
+			if(actors.get(j).compareTo(a) <= 0)
+				continue;
+			
+			do {
+				actors.set(j + 1, actors.get(j));
+				j--;
+			} while(j >= 0 && actors.get(j).compareTo(a) > 0);
+			
+			actors.set(j + 1, a);
+		}
 	}
 	
 	public void draw(SpriteBatch spriteBatch) {
+		draw(spriteBatch, null, null);
+	}
+	
+	/**
+	 * Draws the sprites that overlap the view.
+	 * 
+	 * @param view The world area seen by the camera for this layer. If null, all the sprites are drawn.
+	 * @param stats Sprite counters to update. Can be null.
+	 */
+	public void draw(SpriteBatch spriteBatch, Rectangle view, RenderStats stats) {
 		if(!visible)
 			return;
 		
 		for (BaseActor a : actors) {
-			if(a instanceof SpriteActor)
-				((SpriteActor)a).draw(spriteBatch);
+			if(!(a instanceof SpriteActor) || !a.isVisible())
+				continue;
+			
+			SpriteActor sa = (SpriteActor)a;
+			
+			if(view != null) {
+				Rectangle bounds = sa.getDrawBounds();
+				
+				if(bounds != null && !CullingUtils.isVisible(view, bounds)) {
+					if(stats != null)
+						stats.spritesCulled++;
+					
+					continue;
+				}
+			}
+			
+			sa.draw(spriteBatch);
+			
+			if(stats != null)
+				stats.spritesDrawn++;
 		}
 	}
 	
 	public void add(InteractiveActor actor) {
 		actors.add(actor);
+		sorted = false;
 	}
 
 	public String getName() {
@@ -67,7 +131,7 @@ public class SceneLayer {
 
 			@Override
 			public int compare(InteractiveActor a1, InteractiveActor a2) {
-				return (int) (a1.getZIndex() - a2.getZIndex());
+				return Float.compare(a1.getZIndex(), a2.getZIndex());
 			}
 		});
 	}
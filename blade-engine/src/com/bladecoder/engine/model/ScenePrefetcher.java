@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map.Entry;
+
+import com.bladecoder.engine.actions.Action;
+import com.bladecoder.engine.actions.LeaveAction;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.ActionUtils;
+import com.bladecoder.engine.util.Config;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Loads the assets of the scene that is most likely to be the next one while
+ * the current scene is running, so the scene change doesn't have to wait for
+ * them.
+ *
+ * The next scenes are the ones referenced by the 'leave' actions in the
+ * current scene verbs, its actors verbs and the world verbs, ordered by the
+ * number of references. Once loaded, the scene is added to the
+ * {@link SceneCache}.
+ *
+ * {@link LeaveAction} is the only action that changes the current scene inside
+ * the chapter. 'goto' walks inside the current scene, 'movetoscene' moves an
+ * actor without changing the current scene and 'loadchapter' disposes all the
+ * scenes, so there is nothing to prefetch for them. The inventory verbs are
+ * not scanned because the inventory changes and the references are computed
+ * once per scene.
+ *
+ * The prefetch starts when the asset manager queue is empty and it is
+ * cancelled when the queue is needed for other assets, see
+ * {@link EngineAssetManager#finishLoading()}.
+ *
+ * @author rgarcia
+ */
+public class ScenePrefetcher implements EngineAssetManager.BackgroundLoad {
+	/** Max. time in ms. used to load the prefetched assets every frame */
+	private static final int FRAME_TIME = 4;
+
+	/** Max. texture memory in MB. when prefetching */
+	private static final int DEFAULT_BUDGET = 64;
+
+	/** The scenes referenced from every scene, the most referenced first */
+	private final HashMap<String, ArrayList<String>> adjacency = new HashMap<String, ArrayList<String>>();
+
+	/**
+	 * Scenes not prefetched from the current scene because they exceed the
+	 * budget
+	 */
+	private final HashSet<String> rejected = new HashSet<String>();
+
+	private Scene lastScene;
+
+	/** The scene being loaded */
+	private Scene prefetched;
+	/** Texture memory when the prefetch started, to estimate the scene memory */
+	private long startBytes;
+
+	private final long budget;
+
+	public ScenePrefetcher() {
+		budget = Config.getProperty(Config.PREFETCH_BUDGET_PROP, DEFAULT_BUDGET) * 1024L * 1024L;
+	}
+
+	/**
+	 * Called every frame when the current scene is loaded.
+	 *
+	 * @param cache
+	 *            the prefetched scenes are added to the cache. The scenes in
+	 *            the cache are not prefetched.
+	 */
+	public void update(Scene currentScene, SceneCache cache) {
+		if (budget <= 0 || currentScene == null)
+			return;
+
+		// the scenes are rejected by their own memory, but a rejected scene
+		// can be loaded with the current scene assets. Test them again.
+		if (currentScene != lastScene) {
+			rejected.clear();
+			lastScene = currentScene;
+		}
+
+		if (prefetched != null) {
+			if (!EngineAssetManager.getInstance().update(FRAME_TIME))
+				return;
+
+			EngineAssetManager.getInstance().setBackgroundLoad(null);
+
+			long bytes = Math.max(0, EngineAssetManager.getInstance().getLoadedTextureBytes() - startBytes);
+
+			if (bytes > budget) {
+				EngineLogger.debug("PREFETCH: Scene exceeds the budget: " + prefetched.getId());
+				rejected.add(prefetched.getId());
+				cancel();
+			} else {
+				EngineLogger.debug("PREFETCH: Scene loaded: " + prefetched.getId());
+				cache.put(prefetched, bytes);
+				prefetched = null;
+			}
+
+			return;
+		}
+
+		// the queued assets are needed now
+		if (EngineAssetManager.getInstance().getQueuedAssets() > 0)
+			return;
+
+		Scene next = getNextScene(currentScene, cache);
+
+		if (next == null)
+			return;
+
+		startBytes = EngineAssetManager.getInstance().getLoadedTextureBytes();
+
+		EngineLogger.debug("PREFETCH: Loading scene: " + next.getId());
+
+		prefetched = next;
+		prefetched.loadAssets();
+		EngineAssetManager.getInstance().setBackgroundLoad(this);
+	}
+
+	/**
+	 * If the scene is being prefetched, it is removed from the prefetcher and
+	 * the caller must wait for the assets to be loaded and retrieve them.
+	 *
+	 * @return the texture memory when the prefetch started or -1 if the scene
+	 *         is not being prefetched.
+	 */
+	public long take(Scene scene) {
+		if (scene == null || scene != prefetched)
+			return -1;
+
+		prefetched = null;
+		EngineAssetManager.getInstance().setBackgroundLoad(null);
+
+		return startBytes;
+	}
+
+	public boolean isPrefetching() {
+		return prefetched != null;
+	}
+
+	public boolean isPrefetching(String id) {
+		return prefetched != null && prefetched.getId().equals(id);
+	}
+
+	/**
+	 * Disposes the prefetched scene assets. The scene is prefetched again when
+	 * the asset manager queue is empty.
+	 */
+	@Override
+	public void cancel() {
+		if (prefetched != null) {
+			EngineAssetManager.getInstance().setBackgroundLoad(null);
+			prefetched.dispose();
+			prefetched = null;
+		}
+	}
+
+	/**
+	 * Called when the chapter changes.
+	 */
+	public void dispose() {
+		cancel();
+		adjacency.clear();
+		rejected.clear();
+		lastScene = null;
+	}
+
+	private Scene getNextScene(Scene currentScene, SceneCache cache) {
+		ArrayList<String> next = getNextScenes(currentScene);
+
+		for (int i = 0; i < next.size(); i++) {
+			String id = next.get(i);
+			Scene s = World.getInstance().getScene(id);
+
+			if (s != null && s != currentScene && !cache.contains(s) && !rejected.contains(id))
+				return s;
+		}
+
+		return null;
+	}
+
+	private ArrayList<String> getNextScenes(Scene scene) {
+		ArrayList<String> next = adjacency.get(scene.getId());
+
+		if (next != null)
+			return next;
+
+		final HashMap<String, Integer> refs = new HashMap<String, Integer>();
+
+		addReferences(scene.getVerbManager(), refs);
+		addReferences(World.getInstance().getVerbManager(), refs);
+
+		for (BaseActor a : scene.getActors().values()) {
+			if (a instanceof InteractiveActor)
+				addReferences(((InteractiveActor) a).getVerbManager(), refs);
+		}
+
+		next = new ArrayList<String>(refs.keySet());
+
+		Collections.sort(next, new Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				return refs.get(b) - refs.get(a);
+			}
+		});
+
+		adjacency.put(scene.getId(), next);
+
+		return next;
+	}
+
+	private void addReferences(VerbManager vm, HashMap<String, Integer> refs) {
+		for (Entry<String, Verb> e : vm.getVerbs().entrySet()) {
+			for (Action a : e.getValue().getActions()) {
+				if (!(a instanceof LeaveAction))
+					continue;
+
+				try {
+					String id = ActionUtils.getStringValue(a, "scene");
+
+					if (id != null) {
+						Integer n = refs.get(id);
+						refs.put(id, n == null ? 1 : n + 1);
+					}
+				} catch (Exception ex) {
+					EngineLogger.error("PREFETCH: Error reading scene: " + ex.getMessage());
+				}
+			}
+		}
+	}
+}
@@ -54,6 +54,7 @@ import com.bladecoder.engine.anim.AnimationDesc;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.util.ActionCallbackSerialization;
+import com.bladecoder.engine.util.EngineContext;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.SerializationHelper;
 import com.bladecoder.engine.util.Utils3D;
@@ -69,8 +70,8 @@ public class Sprite3DRenderer implements AnimationRenderer {
 	private final static int MAX_BONES = 40;
 	private final static Format FRAMEBUFFER_FORMAT = Format.RGBA4444;
 
-	private static final Rectangle VIEWPORT = new Rectangle();
-	private final static IntBuffer VIEWPORT_RESULTS = BufferUtils.newIntBuffer(16);
+	private final Rectangle viewport = new Rectangle();
+	private final IntBuffer viewportResults = BufferUtils.newIntBuffer(16);
 
 	private HashMap<String, AnimationDesc> fanims = new HashMap<String, AnimationDesc>();
 
@@ -98,10 +99,14 @@ public class Sprite3DRenderer implements AnimationRenderer {
 	// Rotation of the model in the Y axis
 	private float modelRotation = 0;
 
-	// CREATE STATIC BATCHS FOR EFICIENCY
-	private static ModelBatch modelBatch;
-	private static ModelBatch shadowBatch;
-	private static ModelBatch floorBatch;
+	// CREATE STATIC BATCHS FOR EFICIENCY. One set per engine context.
+	private static class Batches {
+		ModelBatch modelBatch;
+		ModelBatch shadowBatch;
+		ModelBatch floorBatch;
+	}
+
+	private static final Batches globalBatches = new Batches();
 
 	// TODO Move shadowLight to static for memory eficiency.
 	// This implies that the shadow must be calculated in the draw method and
@@ -195,7 +200,7 @@ public class Sprite3DRenderer implements AnimationRenderer {
 
 		drawModel();
 
-		fb.end((int) VIEWPORT.x, (int) VIEWPORT.y, (int) VIEWPORT.width, (int) VIEWPORT.height);
+		fb.end((int) viewport.x, (int) viewport.y, (int) viewport.width, (int) viewport.height);
 	}
 
 	/**
@@ -204,27 +209,34 @@ public class Sprite3DRenderer implements AnimationRenderer {
 	private void genShadowMap() {
 		updateViewport();
 
+		ModelBatch shadowBatch = batches().shadowBatch;
+
 		shadowLight.begin(Vector3.Zero, currentSource.camera3d.direction);
 		shadowBatch.begin(shadowLight.getCamera());
 		shadowBatch.render(currentSource.modelInstance);
 		shadowBatch.end();
 		shadowLight.end();
 
-		Gdx.graphics.getGL20().glViewport((int) VIEWPORT.x, (int) VIEWPORT.y, (int) VIEWPORT.width,
-				(int) VIEWPORT.height);
+		Gdx.graphics.getGL20().glViewport((int) viewport.x, (int) viewport.y, (int) viewport.width,
+				(int) viewport.height);
 	}
 
 	private void drawModel() {
 		if (currentSource != null) {
+			Batches b = batches();
 
 			// DRAW SHADOW
 			if (renderShadow) {
+				ModelBatch floorBatch = b.floorBatch;
+
 				floorBatch.begin(currentSource.camera3d);
 				floorBatch.render(Utils3D.getFloor(), shadowEnvironment);
 				floorBatch.end();
 			}
 
 			// DRAW MODEL
+			ModelBatch modelBatch = b.modelBatch;
+
 			modelBatch.begin(currentSource.camera3d);
 
 			if (EngineLogger.debugMode() && EngineLogger.debugLevel == EngineLogger.DEBUG1)
@@ -427,6 +439,11 @@ public class Sprite3DRenderer implements AnimationRenderer {
 		computeBbox();
 	}
 
+	@Override
+	public void warmAnimation(String id) {
+		// Nothing to warm, the assets are loaded with the actor
+	}
+
 	@Override
 	public void startAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb, String direction) {
 		startAnimation(id, repeatType, count, null);
@@ -578,18 +595,18 @@ public class Sprite3DRenderer implements AnimationRenderer {
 
 			tmp.mul(batch.getTransformMatrix());
 			tmp.prj(batch.getProjectionMatrix());
-			p0x = VIEWPORT.width * (tmp.x + 1) / 2;
-			p0y = VIEWPORT.height * (tmp.y + 1) / 2;
+			p0x = viewport.width * (tmp.x + 1) / 2;
+			p0y = viewport.height * (tmp.y + 1) / 2;
 
 			tmp.set(x + width * scale, y + height * scale, 0);
 			tmp.mul(batch.getTransformMatrix());
 			tmp.prj(batch.getProjectionMatrix());
-			pfx = VIEWPORT.width * (tmp.x + 1) / 2;
-			pfy = VIEWPORT.height * (tmp.y + 1) / 2;
+			pfx = viewport.width * (tmp.x + 1) / 2;
+			pfy = viewport.height * (tmp.y + 1) / 2;
 
 			batch.end();
 
-			Gdx.gl20.glViewport((int) (p0x + VIEWPORT.x), (int) (p0y + VIEWPORT.y), (int) (pfx - p0x),
+			Gdx.gl20.glViewport((int) (p0x + viewport.x), (int) (p0y + viewport.y), (int) (pfx - p0x),
 					(int) (pfy - p0y));
 
 			Gdx.gl.glClear(GL20.GL_DEPTH_BUFFER_BIT
@@ -597,7 +614,7 @@ public class Sprite3DRenderer implements AnimationRenderer {
 
 			drawModel();
 
-			Gdx.gl20.glViewport((int) VIEWPORT.x, (int) VIEWPORT.y, (int) VIEWPORT.width, (int) VIEWPORT.height);
+			Gdx.gl20.glViewport((int) viewport.x, (int) viewport.y, (int) viewport.width, (int) viewport.height);
 			batch.begin();
 		}
 	}
@@ -633,16 +650,37 @@ public class Sprite3DRenderer implements AnimationRenderer {
 		}
 	}
 
-	private static void updateViewport() {
+	private void updateViewport() {
 		// GET CURRENT VIEWPORT SIZE
-		Gdx.gl20.glGetIntegerv(GL20.GL_VIEWPORT, VIEWPORT_RESULTS);
-		VIEWPORT.x = VIEWPORT_RESULTS.get(0);
-		VIEWPORT.y = VIEWPORT_RESULTS.get(1);
-		VIEWPORT.width = VIEWPORT_RESULTS.get(2);
-		VIEWPORT.height = VIEWPORT_RESULTS.get(3);
+		Gdx.gl20.glGetIntegerv(GL20.GL_VIEWPORT, viewportResults);
+		viewport.x = viewportResults.get(0);
+		viewport.y = viewportResults.get(1);
+		viewport.width = viewportResults.get(2);
+		viewport.height = viewportResults.get(3);
+	}
+
+	/**
+	 * The batchs of the engine context bound to the thread or the global ones.
+	 */
+	private static Batches batches() {
+		EngineContext ctx = EngineContext.current();
+
+		if (ctx == null)
+			return globalBatches;
+
+		Batches b = ctx.get(Batches.class);
+
+		if (b == null) {
+			b = new Batches();
+			ctx.put(Batches.class, b);
+		}
+
+		return b;
 	}
 
 	public static void createBatchs() {
+		Batches b = batches();
+
 		Config modelConfigShader = new Config(Gdx.files.classpath(VERTEX_SHADER).readString(),
 				Gdx.files.classpath(FRAGMENT_SHADER).readString());
 
@@ -651,10 +689,10 @@ public class Sprite3DRenderer implements AnimationRenderer {
 		modelConfigShader.numPointLights = 0;
 		modelConfigShader.numSpotLights = 0;
 
-		modelBatch = new ModelBatch(new DefaultShaderProvider(modelConfigShader));
+		b.modelBatch = new ModelBatch(new DefaultShaderProvider(modelConfigShader));
 
-		shadowBatch = new ModelBatch(new DepthShaderProvider());
-		floorBatch = new ModelBatch(new DefaultShaderProvider(Gdx.files.classpath(VERTEX_SHADER),
+		b.shadowBatch = new ModelBatch(new DepthShaderProvider());
+		b.floorBatch = new ModelBatch(new DefaultShaderProvider(Gdx.files.classpath(VERTEX_SHADER),
 				Gdx.files.classpath(FLOOR_FRAGMENT_SHADER)));
 	}
 
@@ -721,7 +759,7 @@ public class Sprite3DRenderer implements AnimationRenderer {
 	@Override
 	public void retrieveAssets() {
 		// create STATIC BATCHS if not created yet
-		if (modelBatch == null)
+		if (batches().modelBatch == null)
 			createBatchs();
 		
 		createEnvirontment();
@@ -783,15 +821,16 @@ public class Sprite3DRenderer implements AnimationRenderer {
 	}
 
 	public static void disposeBatchs() {
+		Batches b = batches();
 
-		if (modelBatch == null)
+		if (b.modelBatch == null)
 			return;
 
-		modelBatch.dispose();
-		shadowBatch.dispose();
-		floorBatch.dispose();
+		b.modelBatch.dispose();
+		b.shadowBatch.dispose();
+		b.floorBatch.dispose();
 
-		modelBatch = shadowBatch = floorBatch = null;
+		b.modelBatch = b.shadowBatch = b.floorBatch = null;
 	}
 
 	@Override
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
@@ -28,6 +29,7 @@ import com.bladecoder.engine.anim.SpritePosTween;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.anim.Tween.Type;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.CullingUtils;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.SerializationHelper;
 import com.bladecoder.engine.util.SerializationHelper.Mode;
@@ -51,6 +53,9 @@ public class SpriteActor extends InteractiveActor {
 
 	private boolean bboxFromRenderer = false;
 
+	/** Reused to avoid creating a rectangle every frame */
+	private final Rectangle drawBounds = new Rectangle();
+
 	public void setRenderer(ActorRenderer r) {
 		renderer = r;
 	}
@@ -158,6 +163,22 @@ public class SpriteActor extends InteractiveActor {
 		}
 	}
 
+	/**
+	 * The area where the sprite is drawn. Used to discard the sprites outside
+	 * the camera view.
+	 * 
+	 * @return the bounds or null if the renderer size doesn't match the drawn
+	 *         area (particles, text, spine...) and the sprite must always be
+	 *         drawn.
+	 */
+	public Rectangle getDrawBounds() {
+		if (!(renderer instanceof AtlasRenderer) && !(renderer instanceof ImageRenderer))
+			return null;
+
+		return CullingUtils.getSpriteBounds(getX(), getY(), renderer.getWidth(), renderer.getHeight(), scale, rot,
+				drawBounds);
+	}
+
 	public void startAnimation(String id, ActionCallback cb) {
 		startAnimation(id, Tween.Type.SPRITE_DEFINED, 1, cb);
 	}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.actions.SceneActorRef;
+import com.bladecoder.engine.util.SerializationHelper;
+import com.bladecoder.engine.util.SerializationHelper.Mode;
+
+/**
+ * Keeps a hash of the state of every scene and actor just after loading the
+ * chapter model, so the game state can be saved as a delta: only the scenes
+ * and actors whose state differs from the model are written. The rest take
+ * their state from the model when loading.
+ *
+ * The changes are not tracked when they happen. They are detected when saving
+ * by hashing the serialized state of every loaded scene and actor and
+ * comparing it with the baseline hash, so saving still serializes all the
+ * loaded scenes, but only the changed ones are written. A change that
+ * restores the model state is not written.
+ *
+ * A scene is written when its own state, its actor list or the state of any
+ * of its actors changed. Actors moved to another scene are always written in
+ * the scene where they are. Scenes not read from the chapter file yet (see
+ * {@link LazySceneMap}) are not changed and must not be passed.
+ *
+ * @author rgarcia
+ */
+public class StateBaseline {
+	private final HashMap<String, Long> sceneHashes = new HashMap<String, Long>();
+	private final HashMap<String, Long> actorHashes = new HashMap<String, Long>();
+	private final HashMap<String, HashSet<String>> sceneActors = new HashMap<String, HashSet<String>>();
+
+	/**
+	 * Result of the 'computeChanges()' call, only valid until
+	 * 'clearChanges()'
+	 */
+	private final HashSet<Scene> dirtyScenes = new HashSet<Scene>();
+	private final HashSet<BaseActor> dirtyActors = new HashSet<BaseActor>();
+	private boolean changesComputed = false;
+
+	/** Scenes whose assets were retrieved since the baseline was taken */
+	private final HashSet<String> retrievedScenes = new HashSet<String>();
+	private final ArrayList<BaseActor> unchangedActors = new ArrayList<BaseActor>();
+
+	private final Json json = new Json();
+	private final HashWriter hashWriter = new HashWriter();
+
+	public StateBaseline() {
+		json.setOutputType(OutputType.minimal);
+	}
+
+	/**
+	 * Stores the state of the scenes. Must be called just after loading the
+	 * chapter model.
+	 */
+	public void take(Collection<Scene> scenes) {
+		clear();
+
+		Mode prevMode = SerializationHelper.getInstance().getMode();
+		SerializationHelper.getInstance().setMode(Mode.STATE);
+
+		try {
+			for (Scene s : scenes)
+				addScene(s);
+		} finally {
+			SerializationHelper.getInstance().setMode(prevMode);
+		}
+	}
+
+	/**
+	 * Stores the state of a scene read from the chapter model after taking
+	 * the baseline.
+	 */
+	public void add(Scene s) {
+		Mode prevMode = SerializationHelper.getInstance().getMode();
+		SerializationHelper.getInstance().setMode(Mode.STATE);
+
+		try {
+			addScene(s);
+		} finally {
+			SerializationHelper.getInstance().setMode(prevMode);
+		}
+	}
+
+	private void addScene(Scene s) {
+		sceneHashes.put(s.getId(), hash(s));
+		sceneActors.put(s.getId(), new HashSet<String>(s.getActors().keySet()));
+
+		for (BaseActor a : s.getActors().values())
+			actorHashes.put(getKey(a), hash(a));
+	}
+
+	/**
+	 * Retrieves the scene assets. The first time, the baseline of the actors
+	 * not changed yet is taken again after retrieving: the renderers start
+	 * their init animation then, the same state they get when the scene is
+	 * restored from the model, so it must not be saved as a change.
+	 */
+	public void retrieveAssets(Scene s) {
+		if (!retrievedScenes.add(s.getId())) {
+			s.retrieveAssets();
+			return;
+		}
+
+		Mode prevMode = SerializationHelper.getInstance().getMode();
+		SerializationHelper.getInstance().setMode(Mode.STATE);
+
+		try {
+			for (BaseActor a : s.getActors().values()) {
+				if (s.getId().equals(a.getInitScene()) && equals(actorHashes.get(getKey(a)), hash(a)))
+					unchangedActors.add(a);
+			}
+
+			s.retrieveAssets();
+
+			for (BaseActor a : unchangedActors)
+				actorHashes.put(getKey(a), hash(a));
+		} finally {
+			unchangedActors.clear();
+			SerializationHelper.getInstance().setMode(prevMode);
+		}
+	}
+
+	/**
+	 * Compares the current state of the scenes with the baseline. Must be
+	 * called in STATE mode before writing the scenes and 'clearChanges()'
+	 * after writing them.
+	 */
+	public void computeChanges(Collection<Scene> scenes) {
+		dirtyScenes.clear();
+		dirtyActors.clear();
+		changesComputed = true;
+
+		for (Scene s : scenes) {
+			boolean dirty = !sceneActors.containsKey(s.getId()) || !equals(sceneHashes.get(s.getId()), hash(s))
+					|| !sceneActors.get(s.getId()).equals(s.getActors().keySet());
+
+			for (BaseActor a : s.getActors().values()) {
+				if (!s.getId().equals(a.getInitScene()) || !equals(actorHashes.get(getKey(a)), hash(a))) {
+					dirtyActors.add(a);
+					dirty = true;
+				}
+			}
+
+			if (dirty)
+				dirtyScenes.add(s);
+		}
+	}
+
+	/**
+	 * @return true between 'computeChanges()' and 'clearChanges()'. Otherwise
+	 *         the dirty sets are stale and every actor must be written.
+	 */
+	public boolean isChangesComputed() {
+		return changesComputed;
+	}
+
+	public void clearChanges() {
+		dirtyScenes.clear();
+		dirtyActors.clear();
+		changesComputed = false;
+	}
+
+	public boolean isDirty(Scene s) {
+		return dirtyScenes.contains(s);
+	}
+
+	public boolean isDirty(BaseActor a) {
+		return dirtyActors.contains(a);
+	}
+
+	public int getDirtyScenes() {
+		return dirtyScenes.size();
+	}
+
+	public int getDirtyActors() {
+		return dirtyActors.size();
+	}
+
+	public void clear() {
+		sceneHashes.clear();
+		actorHashes.clear();
+		sceneActors.clear();
+		retrievedScenes.clear();
+		clearChanges();
+	}
+
+	private static String getKey(BaseActor a) {
+		return new SceneActorRef(a.getInitScene(), a.getId()).toString();
+	}
+
+	private static boolean equals(Long baseline, long hash) {
+		return baseline != null && baseline == hash;
+	}
+
+	private long hash(Scene s) {
+		hashWriter.reset();
+		json.setWriter(new JsonWriter(hashWriter));
+
+		json.writeObjectStart();
+		s.writeStateWithoutActors(json);
+		json.writeObjectEnd();
+
+		return hashWriter.hash;
+	}
+
+	private long hash(BaseActor a) {
+		hashWriter.reset();
+		json.setWriter(new JsonWriter(hashWriter));
+
+		json.writeValue(a);
+
+		return hashWriter.hash;
+	}
+
+	/**
+	 * Computes a 64 bit FNV-1a hash of the written chars, without storing them.
+	 */
+	private static class HashWriter extends Writer {
+		private static final long OFFSET = 0xcbf29ce484222325L;
+		private static final long PRIME = 0x100000001b3L;
+
+		long hash = OFFSET;
+
+		void reset() {
+			hash = OFFSET;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			long h = hash;
+
+			for (int i = off; i < off + len; i++) {
+				h ^= cbuf[i];
+				h *= PRIME;
+			}
+
+			hash = h;
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			long h = hash;
+
+			for (int i = off; i < off + len; i++) {
+				h ^= str.charAt(i);
+				h *= PRIME;
+			}
+
+			hash = h;
+		}
+
+		@Override
+		public void flush() throws IOException {
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+}
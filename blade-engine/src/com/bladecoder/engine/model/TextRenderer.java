@@ -60,7 +60,7 @@ public class TextRenderer implements ActorRenderer {
 	public void update(float delta) {
 	}
 
-	private static final Matrix4 tmp = new Matrix4();
+	private final Matrix4 tmp = new Matrix4();
 
 	@Override
 	public void draw(SpriteBatch batch, float x, float y, float scale, float rotation, Color tint) {
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.util.ArrayList;
+
+import com.badlogic.gdx.math.Polygon;
+
+/**
+ * Triggers the 'enter' and 'exit' verbs of the scene actors.
+ *
+ * Only the actors with 'enter' or 'exit' verbs are registered as zones, and a
+ * zone is only tested against the player position when the player or the zone
+ * moves.
+ *
+ * @author rgarcia
+ */
+class TriggerZones {
+	private final ArrayList<Zone> zones = new ArrayList<Zone>();
+	private boolean dirty = true;
+
+	/** Player position when the zones were tested */
+	private CharacterActor lastPlayer;
+	private float playerX;
+	private float playerY;
+
+	/**
+	 * Must be called when actors are added or removed from the scene.
+	 */
+	public void invalidate() {
+		dirty = true;
+	}
+
+	public void update(Scene scene) {
+		if (dirty)
+			build(scene);
+
+		CharacterActor player = scene.getPlayer();
+
+		if (player == null) {
+			lastPlayer = null;
+			return;
+		}
+
+		if (zones.isEmpty())
+			return;
+
+		float x = player.getX();
+		float y = player.getY();
+		boolean playerMoved = player != lastPlayer || x != playerX || y != playerY;
+
+		lastPlayer = player;
+		playerX = x;
+		playerY = y;
+
+		for (int i = 0; i < zones.size(); i++) {
+			Zone z = zones.get(i);
+
+			// the zone is not tested while invisible
+			if (!z.actor.isVisible()) {
+				z.tested = false;
+				continue;
+			}
+
+			if (z.moved() || playerMoved)
+				z.actor.checkPlayerInside(x, y);
+		}
+	}
+
+	private void build(Scene scene) {
+		zones.clear();
+
+		for (BaseActor a : scene.getActors().values()) {
+			if (!(a instanceof InteractiveActor))
+				continue;
+
+			VerbManager vm = ((InteractiveActor) a).getVerbManager();
+
+			if (vm.hasVerb(Verb.ENTER_VERB) || vm.hasVerb(Verb.EXIT_VERB))
+				zones.add(new Zone((InteractiveActor) a));
+		}
+
+		lastPlayer = null;
+		dirty = false;
+	}
+
+	private static class Zone {
+		final InteractiveActor actor;
+
+		/** bbox transform and local vertices when last tested */
+		boolean tested;
+		float x, y, scaleX, scaleY, rotation;
+		float[] vertices = new float[0];
+
+		Zone(InteractiveActor actor) {
+			this.actor = actor;
+		}
+
+		boolean moved() {
+			Polygon p = actor.getBBox();
+
+			// the renderers change the bbox vertices when the animation changes
+			if (tested && p.getX() == x && p.getY() == y && p.getScaleX() == scaleX && p.getScaleY() == scaleY
+					&& p.getRotation() == rotation && sameVertices(p.getVertices()))
+				return false;
+
+			tested = true;
+			x = p.getX();
+			y = p.getY();
+			scaleX = p.getScaleX();
+			scaleY = p.getScaleY();
+			rotation = p.getRotation();
+
+			float[] v = p.getVertices();
+
+			if (vertices.length != v.length)
+				vertices = new float[v.length];
+
+			System.arraycopy(v, 0, vertices, 0, v.length);
+
+			return true;
+		}
+
+		private boolean sameVertices(float[] v) {
+			if (v.length != vertices.length)
+				return false;
+
+			for (int i = 0; i < v.length; i++) {
+				if (v[i] != vertices[i])
+					return false;
+			}
+
+			return true;
+		}
+	}
+}
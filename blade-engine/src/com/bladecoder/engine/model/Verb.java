@@ -38,6 +38,8 @@ public class Verb implements VerbRunner, Serializable {
 	public static final String INIT_VERB = "init";
 	public static final String INIT_NEW_GAME_VERB = "initNewGame";
 	public static final String INIT_SAVED_GAME_VERB = "initSavedGame";
+	public static final String ENTER_VERB = "enter";
+	public static final String EXIT_VERB = "exit";
 
 	private String id;
 	private String state;
@@ -28,13 +28,21 @@ import com.badlogic.gdx.utils.JsonValue;
 public class VerbManager implements Serializable {
 	protected HashMap<String, Verb> verbs = new HashMap<String, Verb>();
 
+	/**
+	 * Lookup table used by getVerb(): verb id -> target or state -> state. It
+	 * is rebuilt when the verbs change.
+	 */
+	private final HashMap<String, VerbNode> table = new HashMap<String, VerbNode>();
+
+	/** The map and size indexed in the table, to detect changes in the map */
+	private HashMap<String, Verb> indexedVerbs;
+	private int indexedSize = -1;
+
 	public void addVerb(Verb v) {
 		verbs.put(v.getHashKey(), v);
+		indexedSize = -1;
 	}
 
-	// Used only in getVerb(). It is a class variable to avoid allocations
-	private StringBuilder tmpsb = new StringBuilder();
-
 	/**
 	 * Returns an actor Verb.
 	 * 
@@ -46,35 +54,87 @@ public class VerbManager implements Serializable {
 	 *            When an object is used by other object.
 	 */
 	public Verb getVerb(String id, String state, String target) {
+		if (indexedVerbs != verbs || indexedSize != verbs.size())
+			buildTable();
+
+		VerbNode n = table.get(id);
+
+		if (n == null)
+			return null;
+
+		// Most verbs don't have target or state
+		if (n.children == null)
+			return n.verb;
+
 		Verb v = null;
 
 		if (target != null) {
-			tmpsb.setLength(0);
-			if (state != null) {
-				tmpsb.append(id).append(".").append(target).append(".").append(state);
-				v = verbs.get(tmpsb.toString()); // id.target.state
-			}
+			VerbNode t = n.children.get(target);
 
-			if (v == null) {
-				tmpsb.setLength(0);
-				tmpsb.append(id).append(".").append(target);
-				v = verbs.get(tmpsb.toString()); // id.target
+			if (t != null) {
+				if (state != null && t.children != null) {
+					VerbNode ts = t.children.get(state);
+
+					if (ts != null)
+						v = ts.verb; // id.target.state
+				}
+
+				if (v == null)
+					v = t.verb; // id.target
 			}
 		}
 
 		if (v == null && state != null) {
-			tmpsb.setLength(0);
-			tmpsb.append(id).append(".").append(state);
+			VerbNode s = n.children.get(state);
 
-			v = verbs.get(tmpsb.toString()); // id.state
+			if (s != null)
+				v = s.verb; // id.state
 		}
 
 		if (v == null)
-			v = verbs.get(id); // id
+			v = n.verb; // id
 
 		return v;
 	}
 
+	/**
+	 * @return true if there is a verb with the id for any target or state.
+	 */
+	public boolean hasVerb(String id) {
+		if (indexedVerbs != verbs || indexedSize != verbs.size())
+			buildTable();
+
+		return table.containsKey(id);
+	}
+
+	private void buildTable() {
+		table.clear();
+
+		for (Verb v : verbs.values()) {
+			if (v.getId() == null)
+				continue;
+
+			VerbNode n = VerbNode.get(table, v.getId());
+
+			String target = v.getTarget();
+			String state = v.getState();
+
+			if (target != null) {
+				n = VerbNode.get(n.getChildren(), target);
+
+				if (state != null)
+					n = VerbNode.get(n.getChildren(), state);
+			} else if (state != null) {
+				n = VerbNode.get(n.getChildren(), state);
+			}
+
+			n.verb = v;
+		}
+
+		indexedVerbs = verbs;
+		indexedSize = verbs.size();
+	}
+
 	public HashMap<String, Verb> getVerbs() {
 		return verbs;
 	}
@@ -100,6 +160,11 @@ public class VerbManager implements Serializable {
 		}
 
 		if (v != null) {
+			CoverageListener l = World.getInstance().getCoverageListener();
+
+			if (l != null)
+				l.verbRun(v);
+
 			v.run();
 		} else {
 			EngineLogger.error(MessageFormat.format("Verb ''{0}'' not found for target ''{1}''", verb, target));
@@ -153,4 +218,27 @@ public class VerbManager implements Serializable {
 		}
 	}
 
+	private static class VerbNode {
+		Verb verb;
+		HashMap<String, VerbNode> children;
+
+		HashMap<String, VerbNode> getChildren() {
+			if (children == null)
+				children = new HashMap<String, VerbNode>();
+
+			return children;
+		}
+
+		static VerbNode get(HashMap<String, VerbNode> nodes, String key) {
+			VerbNode n = nodes.get(key);
+
+			if (n == null) {
+				n = new VerbNode();
+				// the keys are usually literals, interned keys are compared by reference
+				nodes.put(key.intern(), n);
+			}
+
+			return n;
+		}
+	}
 }
@@ -15,11 +15,13 @@
  ******************************************************************************/
 package com.bladecoder.engine.model;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -27,10 +29,11 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.minimalcode.beans.ObjectWrapper;
 import org.xml.sax.SAXException;
 
+import com.badlogic.gdx.Application.ApplicationType;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Pixmap.Format;
-import com.badlogic.gdx.graphics.PixmapIO;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.utils.Array;
@@ -47,7 +50,12 @@ import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.i18n.I18N;
 import com.bladecoder.engine.ink.InkManager;
+import com.bladecoder.engine.polygonalpathfinder.PathfindingService;
+import com.bladecoder.engine.util.ActionCallbackSerialization;
+import com.bladecoder.engine.util.BinaryJsonReader;
+import com.bladecoder.engine.util.BinaryJsonWriter;
 import com.bladecoder.engine.util.Config;
+import com.bladecoder.engine.util.EngineContext;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.FileUtils;
 import com.bladecoder.engine.util.SerializationHelper;
@@ -62,6 +70,11 @@ public class World implements Serializable, AssetConsumer {
 
 	private static final int SCREENSHOT_DEFAULT_WIDTH = 300;
 
+	/**
+	 * Max. time in ms. loading the animations queued by the actors every frame
+	 */
+	private static final int ANIMATION_LOAD_TIME = 4;
+
 	public static enum AssetState {
 		LOADED, LOADING, LOADING_AND_INIT_SCENE, LOAD_ASSETS, LOAD_ASSETS_AND_INIT_SCENE
 	};
@@ -126,21 +139,53 @@ public class World implements Serializable, AssetConsumer {
 	/** For FADEIN/FADEOUT */
 	private Transition transition;
 
+	/** Notified of the verbs run and the dialog options selected. Can be null. */
+	transient private CoverageListener coverageListener;
+
 	transient private SpriteBatch spriteBatch;
 
-	// We not dispose the last loaded scene.
-	// Instead we cache it to improve performance when returning
-	transient private Scene cachedScene;
+	// We not dispose the last loaded scenes.
+	// Instead we cache them to improve performance when returning
+	transient private SceneCache sceneCache;
+
+	/** Estimated texture memory loaded by the current scene */
+	transient private long currentSceneBytes;
+	/** Texture memory when the current scene started loading. -1 if not loading */
+	transient private long sceneLoadStartBytes = -1;
 
 	private MusicEngine musicEngine;
 
 	private final InkManager inkManager = new InkManager();
 
+	/** Solves the path requests out of the main thread */
+	private final PathfindingService pathfindingService = new PathfindingService();
+
+	/** Loads the next scene assets while the current scene is running */
+	transient private ScenePrefetcher prefetcher;
+
+	/** Writes the game state files in background */
+	transient private final GameStateSaver gameStateSaver = new GameStateSaver();
+
+	/** State of the chapter model to save only the changes. Null if disabled */
+	transient private StateBaseline stateBaseline;
+
 	// New ObjectWrapper
 	private final ObjectWrapper wrapper = new ObjectWrapper(this);
 
 	public static World getInstance() {
-		return instance;
+		EngineContext ctx = EngineContext.current();
+
+		if (ctx == null)
+			return instance;
+
+		World w = ctx.get(World.class);
+
+		if (w == null) {
+			w = new World();
+			ctx.put(World.class, w);
+		}
+
+		return w;
 	}
 
 	private World() {
@@ -160,11 +205,14 @@ public class World implements Serializable, AssetConsumer {
 		cutMode = false;
 		timeOfGame = 0;
 		currentChapter = null;
-		cachedScene = null;
+		sceneCache = new SceneCache();
+		prefetcher = new ScenePrefetcher();
 
 		customProperties = new HashMap<String, String>();
 
-		spriteBatch = new SpriteBatch();
+		// There is no GL context when running in the headless backend
+		if (Gdx.app.getType() != ApplicationType.HeadlessDesktop)
+			spriteBatch = new SpriteBatch();
 
 		transition = new Transition();
 
@@ -181,18 +229,34 @@ public class World implements Serializable, AssetConsumer {
 		return inkManager;
 	}
 
+	public PathfindingService getPathfindingService() {
+		return pathfindingService;
+	}
+
 	/**
 	 * Returns a scene from the cache. null if the scene is not cached.
 	 * 
-	 * Note that by now, the cache has only one Scene. In the future, the cache
-	 * will be a Hastable.
+	 * The scene being prefetched is not returned, its assets are not loaded
+	 * yet. See {@link #isPrefetching(String)}.
 	 */
 	public Scene getCachedScene(String id) {
+		return sceneCache.get(id);
+	}
+
+	/**
+	 * @return true if the scene assets are being loaded in background. They
+	 *         will be retrieved when the scene is set as the current scene.
+	 */
+	public boolean isPrefetching(String id) {
+		return prefetcher.isPrefetching(id);
+	}
 
-		if (cachedScene != null && cachedScene.getId().equals(id))
-			return cachedScene;
+	public SceneCache getSceneCache() {
+		return sceneCache;
+	}
 
-		return null;
+	public StateBaseline getStateBaseline() {
+		return stateBaseline;
 	}
 
 	public void addTimer(float time, ActionCallback cb) {
@@ -219,13 +283,14 @@ public class World implements Serializable, AssetConsumer {
 	}
 
 	public void draw() {
-		if (assetState == AssetState.LOADED) {
+		if (assetState == AssetState.LOADED && spriteBatch != null) {
 			getCurrentScene().draw(spriteBatch);
 		}
 	}
 
 	public void update(float delta) {
 		if (assetState == AssetState.LOAD_ASSETS || assetState == AssetState.LOAD_ASSETS_AND_INIT_SCENE) {
+			sceneLoadStartBytes = EngineAssetManager.getInstance().getLoadedTextureBytes();
 			loadAssets();
 
 			if (assetState == AssetState.LOAD_ASSETS)
@@ -236,11 +301,19 @@ public class World implements Serializable, AssetConsumer {
 			// initLoadingTime = System.currentTimeMillis();
 		}
 
+		// The assets are loaded by the screen (see AssetPump). Only checks that
+		// the queue is empty, without updating it.
 		if ((assetState == AssetState.LOADING || assetState == AssetState.LOADING_AND_INIT_SCENE)
-				&& !EngineAssetManager.getInstance().isLoading()) {
+				&& EngineAssetManager.getInstance().getQueuedAssets() == 0) {
 
 			retrieveAssets();
 
+			if (sceneLoadStartBytes >= 0) {
+				currentSceneBytes = Math.max(0,
+						EngineAssetManager.getInstance().getLoadedTextureBytes() - sceneLoadStartBytes);
+				sceneLoadStartBytes = -1;
+			}
+
 			paused = false;
 
 			boolean initScene = (assetState == AssetState.LOADING_AND_INIT_SCENE);
@@ -290,7 +363,20 @@ public class World implements Serializable, AssetConsumer {
 
 		musicEngine.update(delta);
 
+		pathfindingService.update();
+
 		ActionCallbackQueue.run();
+
+		if (assetState == AssetState.LOADED) {
+			// Loads the animations pending or warmed by the actors. When
+			// prefetching, the prefetcher updates the queue. The prefetch is
+			// cancelled by the pending animations and it doesn't start until
+			// the queue is empty.
+			if (!prefetcher.isPrefetching() && EngineAssetManager.getInstance().getQueuedAssets() > 0)
+				EngineAssetManager.getInstance().update(ANIMATION_LOAD_TIME);
+
+			prefetcher.update(currentScene, sceneCache);
+		}
 	}
 
 	@Override
@@ -308,7 +394,10 @@ public class World implements Serializable, AssetConsumer {
 		if (getInventory().isDisposed())
 			getInventory().retrieveAssets();
 
-		getCurrentScene().retrieveAssets();
+		if (stateBaseline != null)
+			stateBaseline.retrieveAssets(getCurrentScene());
+		else
+			getCurrentScene().retrieveAssets();
 
 		// Print loaded assets for scene
 		if (EngineLogger.debugMode()) {
@@ -360,16 +449,24 @@ public class World implements Serializable, AssetConsumer {
 
 		// Clear all pending callbacks
 		ActionCallbackQueue.clear();
+		pathfindingService.clear();
 
-		if (cachedScene == scene) {
+		long cachedBytes = sceneCache.take(scene);
+		long prefetchStartBytes = -1;
+
+		if (cachedBytes >= 0) {
+			prefetcher.cancel();
 			assetState = AssetState.LOADING_AND_INIT_SCENE;
 		} else {
-			if (cachedScene != null) {
-				cachedScene.dispose();
-				cachedScene = null;
-			}
+			prefetchStartBytes = prefetcher.take(scene);
 
-			assetState = AssetState.LOAD_ASSETS_AND_INIT_SCENE;
+			// The prefetched scene assets are already in the load queue
+			if (prefetchStartBytes >= 0) {
+				assetState = AssetState.LOADING_AND_INIT_SCENE;
+			} else {
+				prefetcher.cancel();
+				assetState = AssetState.LOAD_ASSETS_AND_INIT_SCENE;
+			}
 		}
 
 		if (currentScene != null) {
@@ -389,8 +486,8 @@ public class World implements Serializable, AssetConsumer {
 
 			customProperties.put(WorldProperties.PREVIOUS_SCENE.toString(), currentScene.getId());
 
-			if (CACHE_ENABLED)
-				cachedScene = currentScene; // CACHE ENABLED
+			if (CACHE_ENABLED && currentScene != scene)
+				sceneCache.put(currentScene, currentSceneBytes); // CACHE ENABLED
 			else
 				currentScene.dispose(); // CACHE DISABLED
 
@@ -398,6 +495,10 @@ public class World implements Serializable, AssetConsumer {
 		}
 
 		currentScene = scene;
+		currentSceneBytes = Math.max(0, cachedBytes);
+		sceneLoadStartBytes = prefetchStartBytes;
+
+		EngineLogger.debug("SCENE CACHE: " + sceneCache);
 
 		musicEngine.leaveScene(currentScene.getMusicDesc());
 	}
@@ -515,6 +616,7 @@ public class World implements Serializable, AssetConsumer {
 
 			// Clear all pending callbacks
 			ActionCallbackQueue.clear();
+			pathfindingService.dispose();
 
 			// ONLY dispose currentscene because other scenes are already
 			// disposed
@@ -524,14 +626,18 @@ public class World implements Serializable, AssetConsumer {
 				currentScene = null;
 			}
 
-			if (cachedScene != null) {
-				cachedScene.dispose();
-				cachedScene = null;
-			}
+			sceneCache.clear();
+			prefetcher.dispose();
+			stateBaseline = null;
+
+			gameStateSaver.finish();
 
 			getInventory().dispose();
 
-			spriteBatch.dispose();
+			if (spriteBatch != null) {
+				spriteBatch.dispose();
+				spriteBatch = null;
+			}
 
 			Sprite3DRenderer.disposeBatchs();
 
@@ -565,6 +671,18 @@ public class World implements Serializable, AssetConsumer {
 		this.currentChapter = chapter;
 	}
 
+	public String getCurrentChapter() {
+		return currentChapter;
+	}
+
+	public CoverageListener getCoverageListener() {
+		return coverageListener;
+	}
+
+	public void setCoverageListener(CoverageListener l) {
+		coverageListener = l;
+	}
+
 	public String getInitChapter() {
 		return initChapter;
 	}
@@ -633,6 +751,8 @@ public class World implements Serializable, AssetConsumer {
 		if (EngineAssetManager.getInstance().getUserFile(GAMESTATE_FILENAME).exists()) {
 			EngineAssetManager.getInstance().getUserFile(GAMESTATE_FILENAME).delete();
 		}
+
+		EngineAssetManager.getInstance().getUserFile(GAMESTATE_FILENAME + GameStateSaver.BACKUP_EXT).delete();
 	}
 
 	// ********** SERIALIZATION **********
@@ -648,17 +768,19 @@ public class World implements Serializable, AssetConsumer {
 	 * @throws ParserConfigurationException
 	 */
 	public void load() throws Exception {
-		if (EngineAssetManager.getInstance().getUserFile(GAMESTATE_FILENAME).exists()) {
+		FileHandle savedFile = EngineAssetManager.getInstance().getUserFile(GAMESTATE_FILENAME);
+
+		if (GameStateSaver.getSavedFile(savedFile).exists()) {
 			// SAVEGAME EXISTS
 			try {
-				instance.loadGameState();
+				loadGameState();
 			} catch (Exception e) {
 				EngineLogger.error("ERROR LOADING SAVED GAME", e);
-				instance.loadChapter(null);
+				loadChapter(null);
 			}
 		} else {
 			// XML LOADING
-			instance.loadChapter(null);
+			loadChapter(null);
 		}
 	}
 
@@ -741,17 +863,66 @@ public class World implements Serializable, AssetConsumer {
 
 		currentChapter = chapterName;
 
-		if (EngineAssetManager.getInstance().getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT).exists()) {
+		ActionCallbackSerialization.clear();
+		ActionCallbackSerialization.registerDefaultVerbs(verbs);
 
-			JsonValue root = new JsonReader().parse(EngineAssetManager.getInstance()
-					.getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT).reader("UTF-8"));
+		FileHandle chapterFile = EngineAssetManager.getInstance()
+				.getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT);
+
+		FileHandle bundleFile = EngineAssetManager.getInstance()
+				.getModelFile(chapterName + EngineAssetManager.CHAPTER_BUNDLE_EXT);
+
+		if (chapterFile.exists() || bundleFile.exists()) {
+			JsonValue root;
+
+			LazySceneMap.SceneLoadListener sceneLoadListener = new LazySceneMap.SceneLoadListener() {
+				@Override
+				public void sceneLoaded(Scene s) {
+					s.resetCamera(width, height);
+					ActionCallbackSerialization.register(s);
+
+					if (stateBaseline != null)
+						stateBaseline.add(s);
+				}
+			};
+
+			if (bundleFile.exists()) {
+				// Precompiled chapter generated when packaging the game
+				ChapterBundle bundle = new ChapterBundle(bundleFile.readBytes());
+
+				root = bundle.getChapter();
+				scenes = new LazySceneMap(bundle, sceneLoadListener);
+			} else if (Config.getProperty(Config.LAZY_CHAPTER_PROP, true)) {
+				// Only the scene positions are read. Scenes are read when used.
+				LazySceneMap lazyScenes = new LazySceneMap(chapterFile.readString("UTF-8").toCharArray(),
+						sceneLoadListener);
+
+				root = lazyScenes.index();
+				scenes = lazyScenes;
+			} else {
+				root = new JsonReader().parse(chapterFile.reader("UTF-8"));
+			}
 
 			Json json = new Json();
 			json.setIgnoreUnknownFields(true);
 
 			read(json, root);
 
+			for (Scene s : getLoadedScenes())
+				ActionCallbackSerialization.register(s);
+
 			I18N.loadChapter(EngineAssetManager.MODEL_DIR + chapterName);
+
+			if (Config.getProperty(Config.DELTA_GAMESTATE_PROP, true)) {
+				long baselineTime = System.currentTimeMillis();
+
+				stateBaseline = new StateBaseline();
+				stateBaseline.take(getLoadedScenes());
+
+				EngineLogger.debug("STATE BASELINE TIME (ms): " + (System.currentTimeMillis() - baselineTime));
+			} else {
+				stateBaseline = null;
+			}
 		} else {
 			EngineLogger.error(
 					"ERROR LOADING CHAPTER: " + chapterName + EngineAssetManager.CHAPTER_EXT + " doesn't exists.");
@@ -760,7 +931,24 @@ public class World implements Serializable, AssetConsumer {
 					"ERROR LOADING CHAPTER: " + chapterName + EngineAssetManager.CHAPTER_EXT + " doesn't exists.");
 		}
 
-		EngineLogger.debug("MODEL LOADING TIME (ms): " + (System.currentTimeMillis() - initTime));
+		if (EngineLogger.debugMode()) {
+			Runtime rt = Runtime.getRuntime();
+
+			EngineLogger.debug("MODEL LOADING TIME (ms): " + (System.currentTimeMillis() - initTime) + " SCENES: "
+					+ getLoadedScenes().size() + "/" + scenes.size() + " HEAP (MB): "
+					+ (rt.totalMemory() - rt.freeMemory()) / (1024 * 1024));
+		}
+	}
+
+	/**
+	 * The scenes read from the chapter file. With the lazy chapter loading,
+	 * scenes not used yet are not read.
+	 */
+	public Collection<Scene> getLoadedScenes() {
+		if (scenes instanceof LazySceneMap)
+			return ((LazySceneMap) scenes).getLoadedScenes();
+
+		return scenes.values();
 	}
 
 	public void setModelProp(String prop, String value) {
@@ -791,7 +979,7 @@ public class World implements Serializable, AssetConsumer {
 	}
 
 	public boolean savedGameExists(String filename) {
-		return EngineAssetManager.getInstance().getUserFile(filename).exists()
+		return GameStateSaver.getSavedFile(EngineAssetManager.getInstance().getUserFile(filename)).exists()
 				|| FileUtils.exists(EngineAssetManager.getInstance().getAsset("tests/" + filename));
 	}
 
@@ -802,11 +990,9 @@ public class World implements Serializable, AssetConsumer {
 	}
 
 	public void loadGameState(String filename) throws IOException {
-		FileHandle savedFile = null;
+		FileHandle savedFile = GameStateSaver.getSavedFile(EngineAssetManager.getInstance().getUserFile(filename));
 
-		if (EngineAssetManager.getInstance().getUserFile(filename).exists())
-			savedFile = EngineAssetManager.getInstance().getUserFile(filename);
-		else
+		if (!savedFile.exists())
 			savedFile = EngineAssetManager.getInstance().getAsset("tests/" + filename);
 
 		loadGameState(savedFile);
@@ -815,6 +1001,9 @@ public class World implements Serializable, AssetConsumer {
 	public void loadGameState(FileHandle savedFile) throws IOException {
 		EngineLogger.debug("LOADING GAME STATE");
 
+		// wait for the file to be written
+		gameStateSaver.finish();
+
 		if (!disposed)
 			dispose();
 
@@ -823,7 +1012,19 @@ public class World implements Serializable, AssetConsumer {
 		if (savedFile.exists()) {
 			SerializationHelper.getInstance().setMode(Mode.STATE);
 
-			JsonValue root = new JsonReader().parse(savedFile.reader("UTF-8"));
+			JsonValue root;
+
+			try {
+				root = parseGameState(savedFile);
+			} catch (Exception e) {
+				FileHandle backup = GameStateSaver.getBackup(savedFile);
+
+				if (!backup.exists())
+					throw new IOException("LOADGAMESTATE: error reading saved game", e);
+
+				EngineLogger.error("LOADGAMESTATE: error reading saved game, loading backup: " + backup.name(), e);
+				root = parseGameState(backup);
+			}
 
 			Json json = new Json();
 			json.setIgnoreUnknownFields(true);
@@ -837,12 +1038,31 @@ public class World implements Serializable, AssetConsumer {
 		}
 	}
 
+	private JsonValue parseGameState(FileHandle savedFile) throws IOException {
+		long initTime = System.currentTimeMillis();
+		boolean binary = BinaryJsonReader.isBinary(savedFile);
+		JsonValue root;
+
+		if (binary)
+			root = new BinaryJsonReader().parse(savedFile);
+		else
+			root = new JsonReader().parse(savedFile.reader("UTF-8"));
+
+		EngineLogger.debug("GAME STATE PARSING TIME (ms): " + (System.currentTimeMillis() - initTime) + " FORMAT: "
+				+ (binary ? "binary" : "json") + " SIZE: " + savedFile.length());
+
+		return root;
+	}
+
 	public void saveGameState() throws IOException {
 		saveGameState(GAMESTATE_FILENAME);
 	}
 
 	public void removeGameState(String filename) throws IOException {
+		gameStateSaver.finish();
+
 		EngineAssetManager.getInstance().getUserFile(filename).delete();
+		EngineAssetManager.getInstance().getUserFile(filename + GameStateSaver.BACKUP_EXT).delete();
 		EngineAssetManager.getInstance().getUserFile(filename + ".png").delete();
 	}
 
@@ -852,31 +1072,81 @@ public class World implements Serializable, AssetConsumer {
 		if (disposed)
 			return;
 
+		gameStateSaver.save(createSnapshot(filename));
+	}
+
+	/**
+	 * Saves the game state without stopping the game. The state is serialized
+	 * in the calling thread but the files are written in a background thread.
+	 * 
+	 * @param listener
+	 *            called in the main thread when the files are written. Can be
+	 *            null.
+	 */
+	public void saveGameStateAsync(String filename, GameStateSaver.SaveListener listener) throws IOException {
+		EngineLogger.debug("SAVING GAME STATE ASYNC");
+
+		if (disposed)
+			return;
+
+		gameStateSaver.saveAsync(createSnapshot(filename), listener);
+	}
+
+	private GameStateSaver.Snapshot createSnapshot(String filename) throws IOException {
+		long initTime = System.currentTimeMillis();
+
+		// The callbacks of the paths being solved in the workers can't be
+		// serialized. Start those walks now.
+		pathfindingService.solvePending();
+
 		Json json = new Json();
 		json.setOutputType(OutputType.javascript);
 
-		String s = null;
-
 		SerializationHelper.getInstance().setMode(Mode.STATE);
 
-		if (EngineLogger.debugMode())
-			s = json.prettyPrint(this);
-		else
-			s = json.toJson(this);
+		boolean binary = isBinaryGameState();
+		byte[] data;
 
-		Writer w = EngineAssetManager.getInstance().getUserFile(filename).writer(false, "UTF-8");
+		if (binary) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			BinaryJsonWriter w = new BinaryJsonWriter(out);
 
-		try {
-			w.write(s);
-			w.flush();
-		} catch (IOException e) {
-			throw new IOException("ERROR SAVING GAME", e);
-		} finally {
-			w.close();
+			try {
+				json.setWriter(w);
+				json.writeValue(this, getClass(), null);
+				w.flush();
+			} catch (IOException e) {
+				throw new IOException("ERROR SAVING GAME", e);
+			} finally {
+				w.close();
+			}
+
+			data = out.toByteArray();
+		} else {
+			String s = null;
+
+			if (EngineLogger.debugMode())
+				s = json.prettyPrint(this);
+			else
+				s = json.toJson(this);
+
+			data = s.getBytes("UTF-8");
 		}
 
-		// Save Screenshot
-		takeScreenshot(filename + ".png", SCREENSHOT_DEFAULT_WIDTH);
+		EngineLogger.debug("GAME STATE SERIALIZATION TIME (ms): " + (System.currentTimeMillis() - initTime)
+				+ " FORMAT: " + (binary ? "binary" : "json") + " SIZE: " + data.length);
+
+		return new GameStateSaver.Snapshot(EngineAssetManager.getInstance().getUserFile(filename), data,
+				grabScreenshot(SCREENSHOT_DEFAULT_WIDTH),
+				EngineAssetManager.getInstance().getUserFile(filename + ".png"));
+	}
+
+	/**
+	 * The game state is saved in binary format unless it is disabled in the
+	 * config. The JSON format is used by default in debug mode.
+	 */
+	private boolean isBinaryGameState() {
+		return Config.getProperty(Config.BINARY_GAMESTATE_PROP, !EngineLogger.debugMode());
 	}
 
 	public void saveModel(String chapterId) throws IOException {
@@ -908,10 +1178,23 @@ public class World implements Serializable, AssetConsumer {
 		} finally {
 			w.close();
 		}
+
+		// The precompiled chapter is outdated
+		FileHandle bundleFile = EngineAssetManager.getInstance()
+				.getModelFile(chapterId + EngineAssetManager.CHAPTER_BUNDLE_EXT);
+
+		if (bundleFile.exists())
+			bundleFile.delete();
 	}
 
 	public void takeScreenshot(String filename, int w) {
+		GameStateSaver.writeScreenshot(grabScreenshot(w), EngineAssetManager.getInstance().getUserFile(filename));
+	}
 
+	/**
+	 * Draws the world in a pixmap. The pixmap is upside down.
+	 */
+	private Pixmap grabScreenshot(int w) {
 		int h = (int) (w * getSceneCamera().viewportHeight / getSceneCamera().viewportWidth);
 
 		FrameBuffer fbo = new FrameBuffer(Format.RGB565, w, h, false);
@@ -921,19 +1204,9 @@ public class World implements Serializable, AssetConsumer {
 		Pixmap pixmap = ScreenUtils.getFrameBufferPixmap(0, 0, w, h);
 		fbo.end();
 
-		// Flip the pixmap upside down
-		ByteBuffer pixels = pixmap.getPixels();
-		int numBytes = w * h * 4;
-		byte[] lines = new byte[numBytes];
-		int numBytesPerLine = w * 4;
-		for (int i = 0; i < h; i++) {
-			pixels.position((h - i - 1) * numBytesPerLine);
-			pixels.get(lines, i * numBytesPerLine, numBytesPerLine);
-		}
-		pixels.clear();
-		pixels.put(lines);
+		fbo.dispose();
 
-		PixmapIO.writePNG(EngineAssetManager.getInstance().getUserFile(filename), pixmap);
+		return pixmap;
 	}
 
 	@Override
@@ -949,7 +1222,31 @@ public class World implements Serializable, AssetConsumer {
 			json.writeValue(Config.BLADE_ENGINE_VERSION_PROP,
 					Config.getProperty(Config.BLADE_ENGINE_VERSION_PROP, null));
 			json.writeValue(Config.VERSION_PROP, Config.getProperty(Config.VERSION_PROP, null));
-			json.writeValue("scenes", scenes, scenes.getClass(), Scene.class);
+
+			// Only the scenes changed since the chapter was loaded are saved
+			if (stateBaseline != null) {
+				stateBaseline.computeChanges(getLoadedScenes());
+
+				EngineLogger.debug("DELTA STATE: " + stateBaseline.getDirtyScenes() + "/" + scenes.size()
+						+ " scenes, " + stateBaseline.getDirtyActors() + " actors");
+			}
+
+			// The scenes not read from the chapter file keep the model state
+			if (stateBaseline != null || scenes instanceof LazySceneMap)
+				json.writeValue("deltaState", true);
+
+			json.writeObjectStart("scenes");
+			try {
+				for (Scene s : getLoadedScenes()) {
+					if (stateBaseline == null || stateBaseline.isDirty(s))
+						json.writeValue(s.getId(), s, Scene.class);
+				}
+			} finally {
+				if (stateBaseline != null)
+					stateBaseline.clearChanges();
+			}
+			json.writeObjectEnd();
+
 			json.writeValue("currentScene", currentScene.getId());
 			json.writeValue("inventories", inventories);
 			json.writeValue("currentInventory", currentInventory);
@@ -988,14 +1285,24 @@ public class World implements Serializable, AssetConsumer {
 						+ Config.getProperty(Config.BLADE_ENGINE_VERSION_PROP, ""));
 			}
 
-			scenes = json.readValue("scenes", HashMap.class, Scene.class, jsonData);
+			// with the lazy chapter loading, the scenes are already indexed
+			if (!(scenes instanceof LazySceneMap))
+				scenes = json.readValue("scenes", HashMap.class, Scene.class, jsonData);
+
 			initScene = json.readValue("initScene", String.class, jsonData);
 
 			if (initScene == null && scenes.size() > 0) {
-				initScene = scenes.keySet().toArray(new String[0])[0];
+				// The first scene in the hash order, the same selected before
+				// the scenes were kept in the chapter file order.
+				HashSet<String> ids = new HashSet<String>();
+
+				for (String id : scenes.keySet())
+					ids.add(id);
+
+				initScene = ids.iterator().next();
 			}
 
-			for (Scene s : scenes.values()) {
+			for (Scene s : getLoadedScenes()) {
 				s.resetCamera(width, height);
 			}
 
@@ -1026,6 +1333,9 @@ public class World implements Serializable, AssetConsumer {
 			// restore the state after loading the model
 			SerializationHelper.getInstance().setMode(Mode.STATE);
 
+			// in delta states, the scenes not saved keep the model state
+			boolean deltaState = json.readValue("deltaState", boolean.class, false, jsonData);
+
 			currentScene = scenes.get(json.readValue("currentScene", String.class, jsonData));
 			
 			// read inkManager after setting he current scene but before reading scenes and verbs tweens
@@ -1033,13 +1343,16 @@ public class World implements Serializable, AssetConsumer {
 				inkManager.read(json, jsonData.get("inkManager"));
 			}
 
-			for (Scene s : scenes.values()) {
-				JsonValue jsonValue = jsonData.get("scenes").get(s.getId());
+			// only the saved scenes are read from the chapter file
+			JsonValue jsonScenes = jsonData.get("scenes");
+
+			for (String id : scenes.keySet()) {
+				JsonValue jsonValue = jsonScenes.get(id);
 
 				if (jsonValue != null)
-					s.read(json, jsonValue);
-				else
-					EngineLogger.debug("LOAD WARNING: Scene not found in saved game: " + s.getId());
+					scenes.get(id).read(json, jsonValue);
+				else if (!deltaState)
+					EngineLogger.debug("LOAD WARNING: Scene not found in saved game: " + id);
 			}
 
 			inventories = json.readValue("inventories", HashMap.class, Inventory.class, jsonData);
@@ -1072,7 +1385,7 @@ public class World implements Serializable, AssetConsumer {
 
 			ActionCallbackQueue.read(json, jsonData);
 
-			I18N.loadChapter(EngineAssetManager.MODEL_DIR + instance.currentChapter);
+			I18N.loadChapter(EngineAssetManager.MODEL_DIR + currentChapter);
 		}
 	}
 }
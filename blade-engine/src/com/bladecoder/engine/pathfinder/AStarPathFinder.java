@@ -28,7 +28,7 @@ public class AStarPathFinder<N extends NavNode<N>> implements NavContext<N>, Pat
 	/** The graph being searched */
 	private final NavGraph<N> graph;
 	/** The maximum depth of search we're willing to accept before giving up */
-	private final int maxSearchDistance;
+	private int maxSearchDistance;
 	/** The heuristic we're applying to determine which nodes to search first */
 	private final AStarHeuristicCalculator<N> heuristicCalculator;
 
@@ -48,6 +48,11 @@ public class AStarPathFinder<N extends NavNode<N>> implements NavContext<N>, Pat
 		this.maxSearchDistance = maxSearchDistance;
 	}
 
+	@Override
+	public void setMaxSearchDistance (int maxSearchDistance) {
+		this.maxSearchDistance = maxSearchDistance;
+	}
+
 	@Override
 	public boolean findPath (Object mover, N startNode, N targetNode, NavPath<N> out) {
 		this.mover = mover;
@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.pathfinder;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import com.badlogic.gdx.utils.Array;
+import com.bladecoder.engine.pathfinder.AStarPathFinder.AStarHeuristicCalculator;
+
+/**
+ * A* path finder that works over an index based copy of the graph: the
+ * adjacency is stored in int arrays (CSR) with the edge costs in a float array
+ * and the search state is kept in primitive arrays instead of in every node.
+ *
+ * The graph is compiled from the node list set in 'setNodes()' and must be
+ * invalidated when the nodes or their neighbors change. Nodes not in the list
+ * (like temporary start/target nodes) and neighbors added after the
+ * compilation are read from {@link NavNode#neighbors} at search time.
+ *
+ * It can be used instead of {@link AStarPathFinder} with the same results.
+ *
+ * @author rgarcia
+ */
+public class IndexedAStarPathFinder<N extends NavNode<N>> implements NavContext<N>, PathFinder<N> {
+	private static final int NONE = -1;
+
+	/** The graph being searched */
+	private final NavGraph<N> graph;
+	/** The maximum depth of search we're willing to accept before giving up */
+	private int maxSearchDistance;
+	/** The heuristic we're applying to determine which nodes to search first */
+	private final AStarHeuristicCalculator<N> heuristicCalculator;
+
+	/** The compiled nodes */
+	private List<N> nodeList;
+	private boolean dirty = true;
+
+	/** Index to node. Two more slots for start and target nodes not in the list */
+	private Object nodes[] = new Object[0];
+	private int numNodes;
+	private final IdentityHashMap<N, Integer> indexes = new IdentityHashMap<N, Integer>();
+
+	/** edges of node i are in [edgeStart[i], edgeStart[i + 1]) */
+	private int edgeStart[] = new int[1];
+	private int edgeTarget[] = new int[0];
+	private float edgeCost[] = new float[0];
+	/** number of neighbors when compiled, to detect neighbors added later */
+	private int compiledDegree[] = new int[0];
+
+	/** Search state */
+	private float cost[] = new float[0];
+	private float heuristic[] = new float[0];
+	private int depth[] = new int[0];
+	private int parent[] = new int[0];
+	private boolean closed[] = new boolean[0];
+	private final IndexedBinaryHeap openList = new IndexedBinaryHeap();
+
+	/** The mover going through the path */
+	private Object mover;
+	/** The distance searched so far */
+	private int distance;
+	/** The current source node in the context (part of the NavContext implementation) */
+	private N sourceNodeInContext;
+
+	/** Nodes expanded in the last search. For profiling purposes. */
+	private int expandedNodes;
+
+	public IndexedAStarPathFinder(NavGraph<N> graph, int maxSearchDistance, AStarHeuristicCalculator<N> heuristic) {
+		this.graph = graph;
+		this.maxSearchDistance = maxSearchDistance;
+		this.heuristicCalculator = heuristic;
+	}
+
+	/**
+	 * Sets the graph nodes. The list is compiled before the next search.
+	 */
+	public void setNodes(List<N> nodes) {
+		nodeList = nodes;
+		dirty = true;
+	}
+
+	/**
+	 * Must be called when the nodes or their neighbors change.
+	 */
+	public void invalidate() {
+		dirty = true;
+	}
+
+	@Override
+	public void setMaxSearchDistance(int maxSearchDistance) {
+		this.maxSearchDistance = maxSearchDistance;
+	}
+
+	public int getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	private void compile() {
+		dirty = false;
+		indexes.clear();
+
+		numNodes = nodeList == null ? 0 : nodeList.size();
+		int capacity = numNodes + 2;
+
+		if (nodes.length < capacity) {
+			nodes = new Object[capacity];
+			edgeStart = new int[capacity + 1];
+			compiledDegree = new int[capacity];
+			cost = new float[capacity];
+			heuristic = new float[capacity];
+			depth = new int[capacity];
+			parent = new int[capacity];
+			closed = new boolean[capacity];
+		}
+
+		int numEdges = 0;
+
+		for (int i = 0; i < numNodes; i++) {
+			N n = nodeList.get(i);
+			nodes[i] = n;
+			indexes.put(n, i);
+			numEdges += n.neighbors.size;
+		}
+
+		if (edgeTarget.length < numEdges) {
+			edgeTarget = new int[numEdges];
+			edgeCost = new float[numEdges];
+		}
+
+		int e = 0;
+
+		for (int i = 0; i < numNodes; i++) {
+			N n = nodeList.get(i);
+			Array<N> neighbors = n.neighbors;
+
+			edgeStart[i] = e;
+			compiledDegree[i] = neighbors.size;
+			sourceNodeInContext = n;
+
+			for (int j = 0; j < neighbors.size; j++) {
+				N neighbor = neighbors.get(j);
+				Integer idx = indexes.get(neighbor);
+
+				// neighbors not in the list are resolved in every search
+				if (idx == null) {
+					compiledDegree[i] = j;
+					break;
+				}
+
+				edgeTarget[e] = idx;
+				edgeCost[e] = graph.getCost(this, neighbor);
+				e++;
+			}
+		}
+
+		edgeStart[numNodes] = e;
+	}
+
+	@SuppressWarnings("unchecked")
+	private N node(int i) {
+		return (N) nodes[i];
+	}
+
+	private int indexOf(N n, int startIdx, int targetIdx) {
+		if (n == nodes[startIdx])
+			return startIdx;
+
+		if (n == nodes[targetIdx])
+			return targetIdx;
+
+		Integer idx = indexes.get(n);
+
+		return idx == null ? NONE : idx;
+	}
+
+	@Override
+	public boolean findPath(Object mover, N startNode, N targetNode, NavPath<N> out) {
+		this.mover = mover;
+		distance = 0;
+		expandedNodes = 0;
+
+		sourceNodeInContext = targetNode;
+		if (graph.blocked(this, targetNode))
+			return false;
+
+		if (dirty)
+			compile();
+
+		// Start and target nodes not in the compiled graph use the extra slots
+		Integer s = indexes.get(startNode);
+		Integer t = indexes.get(targetNode);
+		int startIdx = s != null ? s : numNodes;
+		int targetIdx = t != null ? t : numNodes + 1;
+
+		nodes[numNodes] = s == null ? startNode : null;
+		nodes[numNodes + 1] = t == null ? targetNode : null;
+
+		int total = numNodes + 2;
+
+		for (int i = 0; i < total; i++) {
+			cost[i] = 0;
+			depth[i] = 0;
+			parent[i] = NONE;
+			closed[i] = false;
+		}
+
+		openList.reset(total);
+		openList.add(startIdx, 0);
+
+		int maxDepth = 0;
+
+		while (maxDepth < maxSearchDistance && openList.size() != 0) {
+			int current = openList.pop();
+			closed[current] = true;
+			distance = depth[current];
+			expandedNodes++;
+
+			if (current == targetIdx)
+				break;
+
+			N currentNode = node(current);
+
+			// 1. Compiled edges
+			if (current < numNodes) {
+				for (int e = edgeStart[current]; e < edgeStart[current + 1]; e++) {
+					maxDepth = relax(current, edgeTarget[e], edgeCost[e], targetNode, maxDepth);
+				}
+			}
+
+			// 2. Neighbors not compiled
+			Array<N> neighbors = currentNode.neighbors;
+
+			for (int j = current < numNodes ? compiledDegree[current] : 0; j < neighbors.size; j++) {
+				N neighborNode = neighbors.get(j);
+				int neighbor = indexOf(neighborNode, startIdx, targetIdx);
+
+				if (neighbor == NONE)
+					continue;
+
+				sourceNodeInContext = currentNode;
+				maxDepth = relax(current, neighbor, graph.getCost(this, neighborNode), targetNode, maxDepth);
+			}
+		}
+
+		if (parent[targetIdx] == NONE)
+			return false;
+
+		// Set the parents in the nodes to fill the path
+		for (int i = targetIdx; i != startIdx; i = parent[i]) {
+			node(i).parent = node(parent[i]);
+		}
+
+		out.fill(startNode, targetNode);
+
+		return true;
+	}
+
+	private int relax(int current, int neighbor, float stepCost, N targetNode, int maxDepth) {
+		N neighborNode = node(neighbor);
+
+		sourceNodeInContext = node(current);
+		if (graph.blocked(this, neighborNode))
+			return maxDepth;
+
+		float nextStepCost = cost[current] + stepCost;
+
+		if (nextStepCost < cost[neighbor]) {
+			if (openList.contains(neighbor))
+				openList.remove(neighbor);
+
+			closed[neighbor] = false;
+		}
+
+		if (!openList.contains(neighbor) && !closed[neighbor]) {
+			cost[neighbor] = nextStepCost;
+			heuristic[neighbor] = heuristicCalculator.getCost(this, mover, neighborNode, targetNode);
+			depth[neighbor] = depth[current] + 1;
+			parent[neighbor] = current;
+			maxDepth = Math.max(maxDepth, depth[neighbor]);
+			openList.add(neighbor, nextStepCost + heuristic[neighbor]);
+		}
+
+		return maxDepth;
+	}
+
+	@Override
+	public Object getMover() {
+		return mover;
+	}
+
+	@Override
+	public float getSearchDistance() {
+		return distance;
+	}
+
+	@Override
+	public N getSourceNode() {
+		return sourceNodeInContext;
+	}
+}
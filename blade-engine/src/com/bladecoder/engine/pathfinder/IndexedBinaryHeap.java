@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.pathfinder;
+
+/**
+ * Binary min heap of int items (0..capacity-1) with float priorities stored in
+ * primitive arrays. Every item can be in the heap only once, and its position
+ * is tracked so it can be removed without searching.
+ *
+ * The arrays are reused between searches, only growing when needed.
+ *
+ * @author rgarcia
+ */
+class IndexedBinaryHeap {
+	private int items[] = new int[0];
+	private float priorities[] = new float[0];
+	/** position of every item in the heap. -1 if not in the heap */
+	private int positions[] = new int[0];
+
+	private int size;
+
+	/**
+	 * Clears the heap and makes room for items in [0, capacity).
+	 */
+	public void reset(int capacity) {
+		if (positions.length < capacity) {
+			items = new int[capacity];
+			priorities = new float[capacity];
+			positions = new int[capacity];
+		}
+
+		for (int i = 0; i < capacity; i++)
+			positions[i] = -1;
+
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean contains(int item) {
+		return positions[item] != -1;
+	}
+
+	public void add(int item, float priority) {
+		items[size] = item;
+		priorities[size] = priority;
+		positions[item] = size;
+
+		up(size++);
+	}
+
+	/**
+	 * Removes and returns the item with the lowest priority.
+	 */
+	public int pop() {
+		int item = items[0];
+
+		positions[item] = -1;
+
+		if (--size > 0) {
+			move(size, 0);
+			down(0);
+		}
+
+		return item;
+	}
+
+	public void remove(int item) {
+		int index = positions[item];
+
+		positions[item] = -1;
+
+		if (--size > index) {
+			float p = priorities[size];
+			float removed = priorities[index];
+
+			move(size, index);
+
+			if (p < removed)
+				up(index);
+			else
+				down(index);
+		}
+	}
+
+	private void move(int from, int to) {
+		items[to] = items[from];
+		priorities[to] = priorities[from];
+		positions[items[to]] = to;
+	}
+
+	private void up(int index) {
+		int item = items[index];
+		float priority = priorities[index];
+
+		while (index > 0) {
+			int parent = (index - 1) >> 1;
+
+			if (priority >= priorities[parent])
+				break;
+
+			move(parent, index);
+			index = parent;
+		}
+
+		items[index] = item;
+		priorities[index] = priority;
+		positions[item] = index;
+	}
+
+	private void down(int index) {
+		int item = items[index];
+		float priority = priorities[index];
+
+		while (true) {
+			int left = (index << 1) + 1;
+
+			if (left >= size)
+				break;
+
+			int right = left + 1;
+			int smallest = right < size && priorities[right] < priorities[left] ? right : left;
+
+			if (priorities[smallest] >= priority)
+				break;
+
+			move(smallest, index);
+			index = smallest;
+		}
+
+		items[index] = item;
+		priorities[index] = priority;
+		positions[item] = index;
+	}
+}
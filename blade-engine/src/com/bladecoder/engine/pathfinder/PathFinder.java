@@ -33,4 +33,7 @@ public interface PathFinder<N extends NavNode<N>> {
 	 * @param out out-parameter for the navigation path. Will only be filled if a path is found, otherwise it won't get touched.
 	 * @return True if a path was found. */
 	public boolean findPath (Object mover, N startNode, N targetNode, NavPath<N> out);
+
+	/** Sets the maximum depth of search. Paths with more nodes will not be found. */
+	public void setMaxSearchDistance (int maxSearchDistance);
 }
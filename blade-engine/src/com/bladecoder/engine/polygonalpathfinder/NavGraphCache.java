@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Polygon;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Stores the lines of sight of a {@link PolygonalNavGraph} in the user folder.
+ *
+ * The graph is keyed by a hash of the walkzone and obstacle vertices so, if the
+ * scene geometry changes, the stored graph is discarded and calculated again.
+ *
+ * @author rgarcia
+ */
+public class NavGraphCache {
+	private static final String CACHE_DIR = "navgraph/";
+	private static final String CACHE_EXT = ".navgraph";
+
+	private static final int MAGIC = 0x42474e56; // 'BGNV'
+	private static final int VERSION = 2;
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * Calculates the hash of the walkzone, the obstacles and the region width
+	 * used to build the graph.
+	 */
+	public static long hash(Polygon walkZone, List<Polygon> obstacles, float regionWidth) {
+		long h = (FNV_OFFSET ^ Float.floatToIntBits(regionWidth)) * FNV_PRIME;
+
+		h = hash(h, walkZone.getTransformedVertices());
+
+		for (int i = 0; i < obstacles.size(); i++) {
+			h = hash(h, obstacles.get(i).getTransformedVertices());
+		}
+
+		return h;
+	}
+
+	private static long hash(long h, float[] verts) {
+		h = (h ^ verts.length) * FNV_PRIME;
+
+		for (int i = 0; i < verts.length; i++) {
+			h = (h ^ Float.floatToIntBits(verts[i])) * FNV_PRIME;
+		}
+
+		return h;
+	}
+
+	/**
+	 * Loads the lines of sight for the nodes from the cache.
+	 *
+	 * @return true if the cache exists and matches the hash and the nodes.
+	 */
+	public static boolean load(String id, long hash, ArrayList<NavNodePolygonal> nodes) {
+		FileHandle file = getFile(id);
+
+		if (!file.exists())
+			return false;
+
+		DataInputStream in = null;
+
+		try {
+			in = new DataInputStream(new BufferedInputStream(file.read()));
+
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != hash
+					|| in.readInt() != nodes.size())
+				return false;
+
+			for (int i = 0; i < nodes.size(); i++) {
+				NavNodePolygonal n = nodes.get(i);
+
+				int size = in.readInt();
+
+				n.neighbors.ensureCapacity(size);
+
+				for (int j = 0; j < size; j++) {
+					n.neighbors.add(nodes.get(in.readInt()));
+				}
+			}
+
+			return true;
+		} catch (Exception e) {
+			EngineLogger.debug("NavGraphCache: Error reading graph for " + id + ": " + e.getMessage());
+
+			for (int i = 0; i < nodes.size(); i++)
+				nodes.get(i).neighbors.clear();
+
+			return false;
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Stores the lines of sight of the nodes in the cache.
+	 */
+	public static void save(String id, long hash, ArrayList<NavNodePolygonal> nodes) {
+		DataOutputStream out = null;
+
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(getFile(id).write(false)));
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(hash);
+			out.writeInt(nodes.size());
+
+			IdentityHashMap<NavNodePolygonal, Integer> indexes = new IdentityHashMap<NavNodePolygonal, Integer>(
+					nodes.size());
+
+			for (int i = 0; i < nodes.size(); i++)
+				indexes.put(nodes.get(i), i);
+
+			for (int i = 0; i < nodes.size(); i++) {
+				NavNodePolygonal n = nodes.get(i);
+
+				out.writeInt(n.neighbors.size);
+
+				for (int j = 0; j < n.neighbors.size; j++) {
+					out.writeInt(indexes.get(n.neighbors.get(j)));
+				}
+			}
+		} catch (Exception e) {
+			EngineLogger.debug("NavGraphCache: Error writing graph for " + id + ": " + e.getMessage());
+		} finally {
+			close(out);
+		}
+	}
+
+	private static FileHandle getFile(String id) {
+		return EngineAssetManager.getInstance().getUserFile(CACHE_DIR + id + CACHE_EXT);
+	}
+
+	private static void close(Closeable c) {
+		if (c == null)
+			return;
+
+		try {
+			c.close();
+		} catch (IOException e) {
+		}
+	}
+}
@@ -19,6 +19,7 @@ package com.bladecoder.engine.polygonalpathfinder;
 import java.util.ArrayList;
 
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
 import com.bladecoder.engine.pathfinder.NavPath;
 
 /**  
@@ -27,22 +28,31 @@ import com.bladecoder.engine.pathfinder.NavPath;
  * @author rgarcia 
  */
 public class NavPathPolygonal implements NavPath<NavNodePolygonal> {
-	private final ArrayList<Vector2> resultPath = new ArrayList<Vector2>();
+	/** The path points stored as consecutive x, y pairs */
+	private final FloatArray resultPath = new FloatArray();
 
 	@Override
 	public void fill (NavNodePolygonal startNode, NavNodePolygonal targetNode) {
-		
-		// TODO Ineficcient add in index 0 and new
-		
 		resultPath.clear();
 		
+		// The nodes are added from the target to the start and then reversed.
 		NavNodePolygonal current = targetNode;
 		while (current != startNode) {
-			resultPath.add(0, new Vector2(current.getX(), current.getY()));
+			resultPath.add(current.getX(), current.getY());
 			current = (NavNodePolygonal)current.parent;
 		}
 		
-		resultPath.add(0, new Vector2(current.getX(), current.getY()));
+		resultPath.add(current.getX(), current.getY());
+		
+		float[] items = resultPath.items;
+		for (int i = 0, j = resultPath.size - 2; i < j; i += 2, j -= 2) {
+			float x = items[i];
+			float y = items[i + 1];
+			items[i] = items[j];
+			items[i + 1] = items[j + 1];
+			items[j] = x;
+			items[j + 1] = y;
+		}
 	}
 
 	@Override
@@ -52,10 +62,26 @@ public class NavPathPolygonal implements NavPath<NavNodePolygonal> {
 
 	@Override
 	public int getLength () {
-		return resultPath.size();
+		return resultPath.size / 2;
 	}
 	
-	public ArrayList<Vector2> getPath() {
+	/**
+	 * The path points as consecutive x, y pairs. The array is reused between
+	 * searches.
+	 */
+	public FloatArray getPoints() {
 		return resultPath;
 	}
+	
+	/**
+	 * Creates a new list with the path points.
+	 */
+	public ArrayList<Vector2> getPath() {
+		ArrayList<Vector2> path = new ArrayList<Vector2>(getLength());
+		
+		for (int i = 0; i < resultPath.size; i += 2)
+			path.add(new Vector2(resultPath.get(i), resultPath.get(i + 1)));
+		
+		return path;
+	}
 }
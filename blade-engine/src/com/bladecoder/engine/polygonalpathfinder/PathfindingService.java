@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.actions.ActionCallback;
+import com.bladecoder.engine.actions.ActionCallbackQueue;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Solves path requests in a worker pool so the searches don't consume the
+ * frame time.
+ *
+ * The requests are solved against an immutable snapshot of the nav graph
+ * taken in the main thread when the request is made. Every worker searches
+ * in its own copy of the snapshot.
+ *
+ * The solved requests are delivered in the main thread in the 'update()'
+ * method, adding the request callback to the {@link ActionCallbackQueue}.
+ *
+ * The request callbacks are not serializable, so the pending requests must be
+ * solved in the main thread with 'solvePending()' before saving the game.
+ *
+ * @author rgarcia
+ */
+public class PathfindingService {
+	private static final int MAX_WORKERS = 2;
+
+	private ExecutorService executor;
+
+	private final ConcurrentLinkedQueue<PathRequest> solved = new ConcurrentLinkedQueue<PathRequest>();
+
+	/** The requests not delivered yet. Only accessed from the main thread. */
+	private final ArrayList<PathRequest> pending = new ArrayList<PathRequest>();
+
+	/** The last snapshot taken from the scene graph */
+	private PolygonalNavGraph source;
+	private PolygonalNavGraph snapshot;
+	private int snapshotVersion;
+
+	/** Incremented in clear() to discard the requests in progress */
+	private volatile int generation;
+
+	/** For every worker: [0] the snapshot, [1] the working copy of the snapshot */
+	private final ThreadLocal<PolygonalNavGraph[]> workerGraph = new ThreadLocal<PolygonalNavGraph[]>() {
+		@Override
+		protected PolygonalNavGraph[] initialValue() {
+			return new PolygonalNavGraph[2];
+		}
+	};
+
+	/**
+	 * Queues a path request. Must be called from the main thread.
+	 *
+	 * @param cb
+	 *            added to the ActionCallbackQueue when the path is solved. Can
+	 *            be null.
+	 */
+	public PathRequest findPath(PolygonalNavGraph graph, float sx, float sy, float tx, float ty, ActionCallback cb) {
+		if (graph != source || graph.getVersion() != snapshotVersion) {
+			source = graph;
+			snapshotVersion = graph.getVersion();
+			snapshot = graph.copy();
+		}
+
+		final PathRequest request = new PathRequest(snapshot, generation, sx, sy, tx, ty, cb);
+		pending.add(request);
+
+		getExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				solve(request);
+			}
+		});
+
+		return request;
+	}
+
+	private void solve(PathRequest request) {
+		if (request.cancelled || request.generation != generation)
+			return;
+
+		FloatArray path = new FloatArray();
+		boolean found;
+
+		try {
+			PolygonalNavGraph[] g = workerGraph.get();
+
+			if (g[0] != request.snapshot) {
+				g[0] = request.snapshot;
+				g[1] = request.snapshot.copy();
+			}
+
+			found = g[1].findPath(request.sx, request.sy, request.tx, request.ty, path);
+		} catch (Exception e) {
+			EngineLogger.error("PathfindingService: Error finding path", e);
+			found = false;
+		}
+
+		synchronized (request) {
+			// already solved in the main thread
+			if (request.done)
+				return;
+
+			request.path = path;
+			request.found = found;
+		}
+
+		solved.add(request);
+	}
+
+	/**
+	 * Solves the pending requests in the calling thread and resumes their
+	 * callbacks. Must be called from the main thread before saving the game
+	 * state, so the walks are started and the callbacks can be serialized.
+	 */
+	public void solvePending() {
+		for (int i = 0; i < pending.size(); i++) {
+			PathRequest r = pending.get(i);
+
+			if (r.cancelled || r.generation != generation)
+				continue;
+
+			synchronized (r) {
+				if (r.done)
+					continue;
+
+				if (r.path == null) {
+					FloatArray path = new FloatArray();
+
+					r.found = r.snapshot.copy().findPath(r.sx, r.sy, r.tx, r.ty, path);
+					r.path = path;
+				}
+
+				r.done = true;
+			}
+
+			if (r.cb != null)
+				r.cb.resume();
+		}
+
+		pending.clear();
+	}
+
+	/**
+	 * Delivers the solved requests. Must be called from the main thread.
+	 */
+	public void update() {
+		// the cancelled requests are not delivered by the workers
+		for (int i = pending.size() - 1; i >= 0; i--) {
+			if (pending.get(i).cancelled)
+				pending.remove(i);
+		}
+
+		PathRequest r;
+
+		while ((r = solved.poll()) != null) {
+			pending.remove(r);
+
+			if (r.cancelled || r.generation != generation || r.done)
+				continue;
+
+			r.done = true;
+
+			if (r.cb != null)
+				ActionCallbackQueue.add(r.cb);
+		}
+	}
+
+	/**
+	 * Discards all the pending requests. Called when changing scene.
+	 */
+	public void clear() {
+		generation++;
+		solved.clear();
+		pending.clear();
+	}
+
+	public void dispose() {
+		clear();
+
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+
+		source = null;
+		snapshot = null;
+	}
+
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			int workers = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+
+			executor = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "PathfindingService");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+
+		return executor;
+	}
+
+	public static class PathRequest {
+		private final PolygonalNavGraph snapshot;
+		private final int generation;
+		private final float sx, sy, tx, ty;
+		private final ActionCallback cb;
+
+		/** Set with the request lock held */
+		private FloatArray path;
+		private volatile boolean found;
+		private volatile boolean done;
+		private volatile boolean cancelled;
+
+		PathRequest(PolygonalNavGraph snapshot, int generation, float sx, float sy, float tx, float ty,
+				ActionCallback cb) {
+			this.snapshot = snapshot;
+			this.generation = generation;
+			this.sx = sx;
+			this.sy = sy;
+			this.tx = tx;
+			this.ty = ty;
+			this.cb = cb;
+		}
+
+		/**
+		 * @return true when the request has been delivered in the main thread.
+		 */
+		public boolean isDone() {
+			return done;
+		}
+
+		public boolean isFound() {
+			return found;
+		}
+
+		/**
+		 * The path as consecutive x, y pairs. Only valid when the request is
+		 * done.
+		 */
+		public synchronized FloatArray getPath() {
+			return path;
+		}
+
+		/**
+		 * The callback will not be called.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+}
@@ -17,9 +17,12 @@ package com.bladecoder.engine.polygonalpathfinder;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
@@ -27,10 +30,13 @@ import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.model.BaseActor;
 import com.bladecoder.engine.model.ObstacleActor;
 import com.bladecoder.engine.pathfinder.AStarPathFinder;
+import com.bladecoder.engine.pathfinder.IndexedAStarPathFinder;
 import com.bladecoder.engine.pathfinder.NavContext;
 import com.bladecoder.engine.pathfinder.NavGraph;
 import com.bladecoder.engine.pathfinder.PathFinder;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.PolygonEdgeIndex;
 import com.bladecoder.engine.util.PolygonUtils;
 
 /**
@@ -42,58 +48,160 @@ import com.bladecoder.engine.util.PolygonUtils;
 public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializable {
 	private static final int MAX_PATHFINDER_SEARCH_DISTANCE = 50;
 
-	private static final Vector2 tmp = new Vector2();
-	private static final Vector2 tmp2 = new Vector2();
+	/**
+	 * Graphs with less nodes are faster to calculate than to read from the
+	 * cache.
+	 */
+	private static final int MIN_CACHED_GRAPH_NODES = 32;
+
+	/** Max. distance between the portal nodes in a region border, in region widths */
+	private static final float PORTAL_SPACING = 0.5f;
+
+	/** Nodes at this distance from a region border belong to both regions */
+	private static final float REGION_BORDER_EPSILON = 0.0001f;
+
+	private static final int DEFAULT_PATH_CACHE_SIZE = 32;
+
+	/** Points in the same cell share the cached paths */
+	private static final float PATH_CACHE_CELL_SIZE = 2f;
 
 	private Polygon walkZone;
 	private final ArrayList<Polygon> obstacles = new ArrayList<Polygon>();
 
-	final private PathFinder<NavNodePolygonal> pathfinder = new AStarPathFinder<NavNodePolygonal>(this,
-			MAX_PATHFINDER_SEARCH_DISTANCE, new ManhattanDistance());
+	/** Spatial indexes for the walkzone and obstacles edges */
+	private PolygonEdgeIndex walkZoneIndex;
+	private final ArrayList<PolygonEdgeIndex> obstacleIndexes = new ArrayList<PolygonEdgeIndex>();
+
+	final private PathFinder<NavNodePolygonal> pathfinder;
+	/** Not null when the indexed path finder is used. Must be invalidated when the graph changes. */
+	final private IndexedAStarPathFinder<NavNodePolygonal> indexedPathfinder;
 	final private NavPathPolygonal resultPath = new NavPathPolygonal();
 	final private NavNodePolygonal startNode = new NavNodePolygonal();
 	final private NavNodePolygonal targetNode = new NavNodePolygonal();
 	final private ArrayList<NavNodePolygonal> graphNodes = new ArrayList<NavNodePolygonal>();
+	/** The portal nodes, also in graphNodes */
+	final private ArrayList<NavNodePolygonal> portalNodes = new ArrayList<NavNodePolygonal>();
+
+	final private Vector2 source = new Vector2();
+	final private Vector2 target = new Vector2();
+	final private FloatArray tmpPath = new FloatArray();
+	final private FloatArray crossings = new FloatArray();
+
+	/** Incremented every time the graph changes */
+	private int version;
+
+	/**
+	 * When > 0, the walkzone is divided in vertical strips of this width and
+	 * the lines of sight are only calculated between nodes in the same strip.
+	 * The strips are connected by portal nodes placed in the borders.
+	 * 
+	 * This only prunes the graph edges: there is no region level graph and
+	 * the search is the same flat A* over all the nodes, followed by a
+	 * smoothing pass. It reduces the graph build time and the number of edges
+	 * expanded, not the number of nodes searched.
+	 */
+	private float regionWidth = 0;
+	private float regionOrigin;
+	private float regionEnd;
+
+	/**
+	 * LRU cache of the last paths found, keyed by the source and target cells.
+	 * It is cleared every time the graph changes. The entries and their path
+	 * arrays are reused, so the cache doesn't allocate once it is full.
+	 */
+	private int pathCacheSize;
+	private int pathCacheHits;
+	private int pathCacheMisses;
+
+	private PathCacheEntry pathCache[] = new PathCacheEntry[0];
+	private int pathCacheCount;
+	private long pathCacheClock;
+
+	public PolygonalNavGraph() {
+		pathCacheSize = Config.getProperty(Config.PATH_CACHE_SIZE_PROP, DEFAULT_PATH_CACHE_SIZE);
+
+		if (Config.getProperty(Config.INDEXED_PATHFINDER_PROP, false)) {
+			indexedPathfinder = new IndexedAStarPathFinder<NavNodePolygonal>(this, MAX_PATHFINDER_SEARCH_DISTANCE,
+					new ManhattanDistance());
+			indexedPathfinder.setNodes(graphNodes);
+			pathfinder = indexedPathfinder;
+		} else {
+			indexedPathfinder = null;
+			pathfinder = new AStarPathFinder<NavNodePolygonal>(this, MAX_PATHFINDER_SEARCH_DISTANCE,
+					new ManhattanDistance());
+		}
+	}
 
+	/**
+	 * Finds the path between the source and the target points.
+	 * 
+	 * @return a new list with the path points. Empty if no path is found.
+	 */
 	public ArrayList<Vector2> findPath(float sx, float sy, float tx, float ty) {
+		ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+		if (findPath(sx, sy, tx, ty, tmpPath)) {
+			for (int i = 0; i < tmpPath.size; i += 2)
+				path.add(new Vector2(tmpPath.get(i), tmpPath.get(i + 1)));
+		}
+
+		return path;
+	}
+
+	/**
+	 * Finds the path between the source and the target points without
+	 * allocating memory once the internal structures have grown. Useful for
+	 * calls done every frame.
+	 * 
+	 * @param out
+	 *            filled with the path points as consecutive x, y pairs. Empty
+	 *            if no path is found.
+	 * @return true if a path is found.
+	 */
+	public boolean findPath(float sx, float sy, float tx, float ty, FloatArray out) {
+		out.clear();
 		resultPath.clear();
 
-		Vector2 source = new Vector2(sx, sy);
-		Vector2 target = new Vector2(tx, ty);
+		source.set(sx, sy);
+		target.set(tx, ty);
+
+		updateIndexes();
 
 		// 1. First verify if both the start and target points of the path are
 		// inside the polygon. If the end point is outside the polygon clamp it
 		// back inside.
-		if (!PolygonUtils.isPointInside(walkZone, sx, sy, true)) {
+		if (!getWalkZoneIndex().isPointInside(sx, sy, true)) {
 			EngineLogger.debug("PolygonalPathFinder: Source not in polygon!");
 
 			PolygonUtils.getClampedPoint(walkZone, sx, sy, source);
 
-			if (!PolygonUtils.isPointInside(walkZone, source.x, source.y, true)) {
+			if (!getWalkZoneIndex().isPointInside(source.x, source.y, true)) {
 				EngineLogger.debug("PolygonalPathFinder: CLAMPED FAILED!!");
 
-				return resultPath.getPath();
+				return false;
 			}
 
 		}
 
-		if (!PolygonUtils.isPointInside(walkZone, tx, ty, true)) {
+		if (!getWalkZoneIndex().isPointInside(tx, ty, true)) {
 			PolygonUtils.getClampedPoint(walkZone, tx, ty, target);
 
-			if (!PolygonUtils.isPointInside(walkZone, target.x, target.y, true)) {
+			if (!getWalkZoneIndex().isPointInside(target.x, target.y, true)) {
 				EngineLogger.debug("PolygonalPathFinder: CLAMPED FAILED!!");
 
-				return resultPath.getPath();
+				return false;
 			}
 		}
 
-		for (Polygon o : obstacles) {
-			if (PolygonUtils.isPointInside(o, target.x, target.y, false)) {
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+
+			if (obstacleIndexes.get(i).isPointInside(target.x, target.y, false)) {
 				PolygonUtils.getClampedPoint(o, target.x, target.y, target);
 
 				// If the clamped point is not in the walkzone
 				// we search for the first vertex inside
-				if (!PolygonUtils.isPointInside(walkZone, target.x, target.y, true)) {
+				if (!getWalkZoneIndex().isPointInside(target.x, target.y, true)) {
 					getFirstVertexInsideWalkzone(o, target);
 					// We exit after processing the first polygon with the point
 					// inside.
@@ -103,15 +211,130 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 			}
 		}
 
+		if (pathCacheSize <= 0)
+			return searchPath(out);
+
+		int scx = cell(source.x), scy = cell(source.y);
+		int tcx = cell(target.x), tcy = cell(target.y);
+
+		PathCacheEntry e = getCachedPath(scx, scy, tcx, tcy);
+
+		if (e != null && useCachedPath(e, out)) {
+			pathCacheHits++;
+
+			return e.found;
+		}
+
+		pathCacheMisses++;
+		out.clear();
+
+		boolean found = searchPath(out);
+
+		if (e == null)
+			e = newCacheEntry(scx, scy, tcx, tcy);
+
+		e.found = found;
+		e.path.clear();
+		e.path.addAll(out);
+
+		return found;
+	}
+
+	/**
+	 * The cached path was found for other points in the same cells. Its
+	 * interior points are reused if the new source and target can see them.
+	 * 
+	 * @return false if the path can't be reused and must be searched again.
+	 */
+	private boolean useCachedPath(PathCacheEntry e, FloatArray out) {
+		if (!e.found)
+			return true;
+
+		FloatArray p = e.path;
+
+		if (p.size == 4) {
+			if (!inLineOfSight(source.x, source.y, target.x, target.y))
+				return false;
+		} else if (!inLineOfSight(source.x, source.y, p.get(2), p.get(3))
+				|| !inLineOfSight(p.get(p.size - 4), p.get(p.size - 3), target.x, target.y)) {
+			return false;
+		}
+
+		out.addAll(p);
+		out.set(0, source.x);
+		out.set(1, source.y);
+		out.set(out.size - 2, target.x);
+		out.set(out.size - 1, target.y);
+
+		return true;
+	}
+
+	private PathCacheEntry getCachedPath(int scx, int scy, int tcx, int tcy) {
+		for (int i = 0; i < pathCacheCount; i++) {
+			PathCacheEntry e = pathCache[i];
+
+			if (e.scx == scx && e.scy == scy && e.tcx == tcx && e.tcy == tcy) {
+				e.lastUse = ++pathCacheClock;
+				return e;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a free entry or the least recently used one.
+	 */
+	private PathCacheEntry newCacheEntry(int scx, int scy, int tcx, int tcy) {
+		PathCacheEntry e;
+
+		if (pathCacheCount < pathCacheSize) {
+			if (pathCache.length < pathCacheSize) {
+				PathCacheEntry[] a = new PathCacheEntry[pathCacheSize];
+				System.arraycopy(pathCache, 0, a, 0, pathCache.length);
+				pathCache = a;
+			}
+
+			e = pathCache[pathCacheCount];
+
+			if (e == null) {
+				e = new PathCacheEntry();
+				pathCache[pathCacheCount] = e;
+			}
+
+			pathCacheCount++;
+		} else {
+			e = pathCache[0];
+
+			for (int i = 1; i < pathCacheCount; i++) {
+				if (pathCache[i].lastUse < e.lastUse)
+					e = pathCache[i];
+			}
+		}
+
+		e.scx = scx;
+		e.scy = scy;
+		e.tcx = tcx;
+		e.tcy = tcy;
+		e.lastUse = ++pathCacheClock;
+
+		return e;
+	}
+
+	/**
+	 * Searches the path between the 'source' and 'target' points once they are
+	 * clamped inside the walkable area.
+	 */
+	private boolean searchPath(FloatArray out) {
 		// 2. Then start by checking if both points are in line-of-sight. If
 		// they are, there’s no need for pathfinding, just walk there!
 		if (inLineOfSight(source.x, source.y, target.x, target.y)) {
 			EngineLogger.debug("PolygonalPathFinder: Direct path found");
 
-			resultPath.getPath().add(source);
-			resultPath.getPath().add(target);
+			out.add(source.x, source.y);
+			out.add(target.x, target.y);
 
-			return resultPath.getPath();
+			return true;
 		}
 
 		// 3. Otherwise, add the start and end points of your path as new
@@ -121,9 +344,72 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 		// 5. Run your A* implementation on the graph to get your path. This
 		// path is guaranteed to be as direct as possible!
-		pathfinder.findPath(null, startNode, targetNode, resultPath);
+		// The search depth must allow paths through all the graph nodes.
+		pathfinder.setMaxSearchDistance(Math.max(MAX_PATHFINDER_SEARCH_DISTANCE, graphNodes.size() + 2));
+
+		if (!pathfinder.findPath(null, startNode, targetNode, resultPath))
+			return false;
 
-		return resultPath.getPath();
+		out.addAll(resultPath.getPoints());
+
+		if (regionWidth > 0)
+			smoothPath(out);
+
+		return true;
+	}
+
+	private static int cell(float v) {
+		return (int) Math.floor(v / PATH_CACHE_CELL_SIZE);
+	}
+
+	/**
+	 * Sets the number of paths stored in the path cache. 0 to disable it.
+	 */
+	public void setPathCacheSize(int size) {
+		pathCacheSize = size;
+		pathCacheCount = 0;
+	}
+
+	public int getPathCacheSize() {
+		return pathCacheSize;
+	}
+
+	public int getPathCacheHits() {
+		return pathCacheHits;
+	}
+
+	public int getPathCacheMisses() {
+		return pathCacheMisses;
+	}
+
+	public void resetPathCacheStats() {
+		pathCacheHits = 0;
+		pathCacheMisses = 0;
+	}
+
+	/**
+	 * The paths found with region pruning go through the portal nodes. Removes
+	 * the intermediate points that are not needed because there is line of
+	 * sight between their neighbors.
+	 */
+	private void smoothPath(FloatArray path) {
+		float p[] = path.items;
+		int last = path.size - 2;
+		int w = 2;
+
+		for (int i = 0; i < last;) {
+			int j = last;
+
+			while (j > i + 2 && !inLineOfSight(p[i], p[i + 1], p[j], p[j + 1]))
+				j -= 2;
+
+			p[w] = p[j];
+			p[w + 1] = p[j + 1];
+			w += 2;
+			i = j;
+		}
+
+		path.size = w;
 	}
 
 	/**
@@ -138,7 +424,7 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		float verts[] = p.getTransformedVertices();
 
 		for (int i = 0; i < verts.length; i += 2) {
-			if (PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], true)) {
+			if (getWalkZoneIndex().isPointInside(verts[i], verts[i + 1], true)) {
 				target.x = verts[i];
 				target.y = verts[i + 1];
 
@@ -148,7 +434,21 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 	}
 
 	public void createInitialGraph(Collection<BaseActor> actors) {
+		createInitialGraph(null, actors);
+	}
+
+	/**
+	 * Creates the graph for the walkzone and the visible obstacles.
+	 * 
+	 * @param cacheId
+	 *            if not null, the lines of sight are stored/retrieved from the
+	 *            {@link NavGraphCache} with this id.
+	 */
+	public void createInitialGraph(String cacheId, Collection<BaseActor> actors) {
+		graphChanged();
 		graphNodes.clear();
+		portalNodes.clear();
+		walkZoneIndex = new PolygonEdgeIndex(walkZone);
 
 		// 1.- Add WalkZone convex nodes
 		float verts[] = walkZone.getTransformedVertices();
@@ -161,10 +461,13 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 		// 2.- Add obstacles concave nodes
 		obstacles.clear();
+		obstacleIndexes.clear();
 
 		for (BaseActor a : actors) {
-			if (a instanceof ObstacleActor && a.isVisible())
+			if (a instanceof ObstacleActor && a.isVisible()) {
 				obstacles.add(a.getBBox());
+				obstacleIndexes.add(new PolygonEdgeIndex(a.getBBox()));
+			}
 		}
 
 		for (Polygon o : obstacles) {
@@ -172,38 +475,220 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 			for (int i = 0; i < verts.length; i += 2) {
 				if (PolygonUtils.isVertexConcave(o, i)
-						&& PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
+						&& getWalkZoneIndex().isPointInside(verts[i], verts[i + 1], false)) {
 					graphNodes.add(new NavNodePolygonal(verts[i], verts[i + 1]));
 				}
 			}
 		}
 
-		// 3.- CALC LINE OF SIGHTs
+		// 3.- Add portal nodes between regions
+		if (regionWidth > 0)
+			addPortalNodes();
+
+		// 4.- CALC LINE OF SIGHTs
+		boolean cached = cacheId != null && graphNodes.size() >= MIN_CACHED_GRAPH_NODES;
+		long hash = 0;
+
+		if (cached) {
+			hash = NavGraphCache.hash(walkZone, obstacles, regionWidth);
+
+			if (NavGraphCache.load(cacheId, hash, graphNodes)) {
+				EngineLogger.debug("PolygonalPathFinder: Graph loaded from cache: " + cacheId);
+				return;
+			}
+		}
+
 		for (int i = 0; i < graphNodes.size() - 1; i++) {
 			NavNodePolygonal n1 = graphNodes.get(i);
 
 			for (int j = i + 1; j < graphNodes.size(); j++) {
 				NavNodePolygonal n2 = graphNodes.get(j);
 
-				if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+				if (sameRegion(n1.x, n2.x) && inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
 					n1.neighbors.add(n2);
 					n2.neighbors.add(n1);
 				}
 			}
 		}
+
+		if (cached)
+			NavGraphCache.save(cacheId, hash, graphNodes);
 	}
 
-	private boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y) {
+	/**
+	 * Adds the portal nodes in every region border, so the regions are
+	 * connected.
+	 */
+	private void addPortalNodes() {
+		float verts[] = walkZone.getTransformedVertices();
+		float minX = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+
+		for (int i = 0; i < verts.length; i += 2) {
+			minX = Math.min(minX, verts[i]);
+			maxX = Math.max(maxX, verts[i]);
+		}
+
+		regionOrigin = minX;
+		regionEnd = maxX;
+
+		for (int k = 1; regionOrigin + k * regionWidth < regionEnd; k++)
+			addPortalNodes(regionOrigin + k * regionWidth, false);
+	}
+
+	/**
+	 * Adds the portal nodes of the region border in x. The border is divided
+	 * in intervals by the walkzone and obstacles crossings and every walkable
+	 * interval gets at least one node.
+	 * 
+	 * @param connect
+	 *            calculates the lines of sight of the new nodes. Used when the
+	 *            graph is already created.
+	 */
+	private void addPortalNodes(float x, boolean connect) {
+		crossings.clear();
+		addCrossings(walkZone.getTransformedVertices(), x, crossings);
+
+		for (int i = 0; i < obstacles.size(); i++)
+			addCrossings(obstacles.get(i).getTransformedVertices(), x, crossings);
 
-		tmp.set(p1X, p1Y);
-		tmp2.set(p2X, p2Y);
+		crossings.sort();
 
-		if (!PolygonUtils.inLineOfSight(tmp, tmp2, walkZone, false)) {
+		// The walkable state only changes in the crossings, so it is tested in
+		// the middle of every segment and the consecutive walkable segments
+		// are merged.
+		float start = 0;
+		boolean open = false;
+
+		for (int i = 0; i < crossings.size - 1; i++) {
+			float y1 = crossings.get(i);
+			float y2 = crossings.get(i + 1);
+
+			if (y2 <= y1)
+				continue;
+
+			boolean walkable = isWalkable(x, (y1 + y2) / 2);
+
+			if (walkable && !open) {
+				start = y1;
+				open = true;
+			} else if (!walkable && open) {
+				addPortalInterval(x, start, y1, connect);
+				open = false;
+			}
+		}
+
+		if (open)
+			addPortalInterval(x, start, crossings.get(crossings.size - 1), connect);
+	}
+
+	private void addPortalInterval(float x, float y1, float y2, boolean connect) {
+		int n = (int) ((y2 - y1) / (regionWidth * PORTAL_SPACING)) + 1;
+
+		for (int j = 0; j < n; j++) {
+			NavNodePolygonal n1 = new NavNodePolygonal(x, y1 + (j + 0.5f) * (y2 - y1) / n);
+
+			if (connect) {
+				for (int i = 0; i < graphNodes.size(); i++) {
+					NavNodePolygonal n2 = graphNodes.get(i);
+
+					if (sameRegion(n1.x, n2.x) && inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+						n1.neighbors.add(n2);
+						n2.neighbors.add(n1);
+					}
+				}
+			}
+
+			graphNodes.add(n1);
+			portalNodes.add(n1);
+		}
+	}
+
+	/**
+	 * Calculates again the portals of the region borders crossing the bounds
+	 * of an added or removed obstacle.
+	 */
+	private void updatePortalNodes(Rectangle bounds) {
+		if (regionWidth <= 0)
+			return;
+
+		int first = Math.max(1, (int) Math.ceil((bounds.x - regionOrigin) / regionWidth));
+
+		for (int k = first; regionOrigin + k * regionWidth < regionEnd; k++) {
+			float x = regionOrigin + k * regionWidth;
+
+			if (x > bounds.x + bounds.width)
+				break;
+
+			removePortalNodes(x);
+			addPortalNodes(x, true);
+		}
+	}
+
+	private void removePortalNodes(float x) {
+		for (int i = portalNodes.size() - 1; i >= 0; i--) {
+			NavNodePolygonal n = portalNodes.get(i);
+
+			if (n.x != x)
+				continue;
+
+			portalNodes.remove(i);
+			graphNodes.remove(n);
+
+			for (int j = 0; j < n.neighbors.size; j++)
+				n.neighbors.get(j).neighbors.removeValue(n, true);
+		}
+	}
+
+	private static void addCrossings(float verts[], float x, FloatArray out) {
+		for (int i = 0; i < verts.length; i += 2) {
+			float x1 = verts[i], y1 = verts[i + 1];
+			float x2 = verts[(i + 2) % verts.length], y2 = verts[(i + 3) % verts.length];
+
+			if ((x1 <= x) != (x2 <= x))
+				out.add(y1 + (x - x1) * (y2 - y1) / (x2 - x1));
+		}
+	}
+
+	private boolean isWalkable(float x, float y) {
+		if (!getWalkZoneIndex().isPointInside(x, y, false))
 			return false;
+
+		for (int i = 0; i < obstacleIndexes.size(); i++) {
+			if (obstacleIndexes.get(i).isPointInside(x, y, true))
+				return false;
 		}
 
-		for (Polygon o : obstacles) {
-			if (!PolygonUtils.inLineOfSight(tmp, tmp2, o, true)) {
+		return true;
+	}
+
+	/**
+	 * With region pruning, returns true if both points are in the same region.
+	 * Points in a region border belong to both regions.
+	 */
+	private boolean sameRegion(float x1, float x2) {
+		if (regionWidth <= 0)
+			return true;
+
+		float r1 = (x1 - regionOrigin) / regionWidth;
+		float r2 = (x2 - regionOrigin) / regionWidth;
+
+		int min1 = (int) Math.floor(r1 - REGION_BORDER_EPSILON);
+		int max1 = (int) Math.floor(r1 + REGION_BORDER_EPSILON);
+		int min2 = (int) Math.floor(r2 - REGION_BORDER_EPSILON);
+		int max2 = (int) Math.floor(r2 + REGION_BORDER_EPSILON);
+
+		return Math.max(min1, min2) <= Math.min(max1, max2);
+	}
+
+	private boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y) {
+
+		if (!getWalkZoneIndex().inLineOfSight(p1X, p1Y, p2X, p2Y, false)) {
+			return false;
+		}
+
+		for (int i = 0; i < obstacleIndexes.size(); i++) {
+			if (!obstacleIndexes.get(i).inLineOfSight(p1X, p1Y, p2X, p2Y, true)) {
 				return false;
 			}
 		}
@@ -211,6 +696,29 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		return true;
 	}
 
+	/**
+	 * Rebuilds the edge indexes of the walkzone and obstacles moved, scaled or
+	 * rotated since the last query. The cached paths are not valid after that.
+	 */
+	private void updateIndexes() {
+		boolean changed = getWalkZoneIndex().update();
+
+		for (int i = 0; i < obstacleIndexes.size(); i++) {
+			if (obstacleIndexes.get(i).update())
+				changed = true;
+		}
+
+		if (changed)
+			graphChanged();
+	}
+
+	private PolygonEdgeIndex getWalkZoneIndex() {
+		if (walkZoneIndex == null || walkZoneIndex.getPolygon() != walkZone)
+			walkZoneIndex = new PolygonEdgeIndex(walkZone);
+
+		return walkZoneIndex;
+	}
+
 	private void addStartEndNodes(float sx, float sy, float tx, float ty) {
 		startNode.x = sx;
 		startNode.y = sy;
@@ -219,15 +727,16 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 		startNode.neighbors.clear();
 
-		for (NavNodePolygonal n : graphNodes) {
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n = graphNodes.get(i);
 
 			n.neighbors.removeValue(targetNode, true);
 
-			if (inLineOfSight(startNode.x, startNode.y, n.x, n.y)) {
+			if (sameRegion(startNode.x, n.x) && inLineOfSight(startNode.x, startNode.y, n.x, n.y)) {
 				startNode.neighbors.add(n);
 			}
 
-			if (inLineOfSight(targetNode.x, targetNode.y, n.x, n.y)) {
+			if (sameRegion(targetNode.x, n.x) && inLineOfSight(targetNode.x, targetNode.y, n.x, n.y)) {
 				n.neighbors.add(targetNode);
 			}
 		}
@@ -240,6 +749,94 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 	public void setWalkZone(Polygon walkZone) {
 		this.walkZone = walkZone;
+		walkZoneIndex = null;
+		graphChanged();
+	}
+
+	private void graphChanged() {
+		version++;
+		pathCacheCount = 0;
+
+		if (indexedPathfinder != null)
+			indexedPathfinder.invalidate();
+	}
+
+	public float getRegionWidth() {
+		return regionWidth;
+	}
+
+	/**
+	 * Enables the region edge pruning for big walkzones: lines of sight are
+	 * only calculated inside vertical strips of this width, connected by
+	 * portal nodes. The graph must be created again after changing it.
+	 * 
+	 * @param regionWidth
+	 *            the width of the regions. 0 to disable.
+	 */
+	public void setRegionWidth(float regionWidth) {
+		this.regionWidth = regionWidth;
+		graphChanged();
+	}
+
+	/**
+	 * The graph version is incremented every time the walkzone, the obstacles
+	 * or the graph nodes change.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Creates an independent copy of the walkzone, obstacles and graph nodes.
+	 * The copy uses the current transformed vertices so it is not affected by
+	 * later changes in this graph.
+	 */
+	public PolygonalNavGraph copy() {
+		PolygonalNavGraph g = new PolygonalNavGraph();
+
+		g.walkZone = new Polygon(walkZone.getTransformedVertices().clone());
+		g.walkZoneIndex = new PolygonEdgeIndex(g.walkZone);
+
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = new Polygon(obstacles.get(i).getTransformedVertices().clone());
+
+			g.obstacles.add(o);
+			g.obstacleIndexes.add(new PolygonEdgeIndex(o));
+		}
+
+		IdentityHashMap<NavNodePolygonal, NavNodePolygonal> copies = new IdentityHashMap<NavNodePolygonal, NavNodePolygonal>(
+				graphNodes.size());
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n = graphNodes.get(i);
+			NavNodePolygonal c = new NavNodePolygonal(n.x, n.y);
+
+			copies.put(n, c);
+			g.graphNodes.add(c);
+		}
+
+		for (int i = 0; i < portalNodes.size(); i++)
+			g.portalNodes.add(copies.get(portalNodes.get(i)));
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n = graphNodes.get(i);
+			NavNodePolygonal c = g.graphNodes.get(i);
+
+			for (int j = 0; j < n.neighbors.size; j++) {
+				// the target node of the last search is not copied
+				NavNodePolygonal neighbor = copies.get(n.neighbors.get(j));
+
+				if (neighbor != null)
+					c.neighbors.add(neighbor);
+			}
+		}
+
+		g.regionWidth = regionWidth;
+		g.regionOrigin = regionOrigin;
+		g.regionEnd = regionEnd;
+		g.version = version;
+
+		return g;
 	}
 
 	public ArrayList<NavNodePolygonal> getGraphNodes() {
@@ -256,17 +853,34 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		return 1;
 	}
 
-	private void addObstacleToGrapth(Polygon poly) {
+	private void addObstacleToGrapth(Polygon poly, PolygonEdgeIndex index) {
+		Rectangle bounds = poly.getBoundingRectangle();
+
+		// Only the lines of sight that cross the obstacle bounds can be
+		// blocked by the new obstacle.
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n1 = graphNodes.get(i);
+
+			for (int j = n1.neighbors.size - 1; j >= 0; j--) {
+				NavNodePolygonal n2 = n1.neighbors.get(j);
+
+				if (segmentOverlaps(bounds, n1, n2) && !index.inLineOfSight(n1.x, n1.y, n2.x, n2.y, true)) {
+					n1.neighbors.removeIndex(j);
+					n2.neighbors.removeValue(n1, true);
+				}
+			}
+		}
+
 		float verts[] = poly.getTransformedVertices();
 		for (int i = 0; i < verts.length; i += 2) {
 			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
+					&& getWalkZoneIndex().isPointInside(verts[i], verts[i + 1], false)) {
 				NavNodePolygonal n1 = new NavNodePolygonal(verts[i], verts[i + 1]);
 
 				for (int j = 0; j < graphNodes.size(); j++) {
 					NavNodePolygonal n2 = graphNodes.get(j);
 
-					if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+					if (sameRegion(n1.x, n2.x) && inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
 						n1.neighbors.add(n2);
 						n2.neighbors.add(n1);
 					}
@@ -275,6 +889,33 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 				graphNodes.add(n1);
 			}
 		}
+
+		updatePortalNodes(bounds);
+	}
+
+	/**
+	 * Adds the lines of sight that were blocked by a removed obstacle. Only the
+	 * node pairs whose segment crosses the obstacle bounds are checked.
+	 */
+	private void restoreLinesOfSight(Rectangle bounds) {
+		for (int i = 0; i < graphNodes.size() - 1; i++) {
+			NavNodePolygonal n1 = graphNodes.get(i);
+
+			for (int j = i + 1; j < graphNodes.size(); j++) {
+				NavNodePolygonal n2 = graphNodes.get(j);
+
+				if (segmentOverlaps(bounds, n1, n2) && sameRegion(n1.x, n2.x) && !n1.neighbors.contains(n2, true)
+						&& inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+					n1.neighbors.add(n2);
+					n2.neighbors.add(n1);
+				}
+			}
+		}
+	}
+
+	private static boolean segmentOverlaps(Rectangle r, NavNodePolygonal n1, NavNodePolygonal n2) {
+		return Math.min(n1.x, n2.x) <= r.x + r.width && Math.max(n1.x, n2.x) >= r.x
+				&& Math.min(n1.y, n2.y) <= r.y + r.height && Math.max(n1.y, n2.y) >= r.y;
 	}
 
 	public void addDinamicObstacle(Polygon poly) {
@@ -283,22 +924,30 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 		// CHECK TO AVOID ADDING THE ACTOR SEVERAL TIMES
 		if (idx == -1) {
+			PolygonEdgeIndex index = new PolygonEdgeIndex(poly);
+
 			obstacles.add(poly);
-			addObstacleToGrapth(poly);
+			obstacleIndexes.add(index);
+			addObstacleToGrapth(poly, index);
+			graphChanged();
 		}
 	}
 
 	public boolean removeDinamicObstacle(Polygon poly) {
-		boolean exists = obstacles.remove(poly);
+		int idx = obstacles.indexOf(poly);
 
-		if (!exists)
+		if (idx == -1)
 			return false;
 
+		obstacles.remove(idx);
+		obstacleIndexes.remove(idx);
+		graphChanged();
+
 		float verts[] = poly.getTransformedVertices();
 
 		for (int i = 0; i < verts.length; i += 2) {
 			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
+					&& getWalkZoneIndex().isPointInside(verts[i], verts[i + 1], false)) {
 				for (int j = 0; j < graphNodes.size(); j++) {
 					NavNodePolygonal n = graphNodes.get(j);
 
@@ -315,6 +964,11 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 			}
 		}
 
+		Rectangle bounds = poly.getBoundingRectangle();
+
+		restoreLinesOfSight(bounds);
+		updatePortalNodes(bounds);
+
 		return true;
 	}
 
@@ -323,6 +977,9 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		Polygon p = new Polygon(walkZone.getVertices());
 		p.setPosition(walkZone.getX() / walkZone.getScaleX(), walkZone.getY() / walkZone.getScaleY());
 		json.writeValue("walkZone", p);
+
+		if (regionWidth > 0)
+			json.writeValue("regionWidth", regionWidth / walkZone.getScaleX());
 	}
 
 	@Override
@@ -332,5 +989,15 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		walkZone = json.readValue("walkZone", Polygon.class, jsonData);
 		walkZone.setScale(worldScale, worldScale);
 		walkZone.setPosition(walkZone.getX() * worldScale, walkZone.getY() * worldScale);
+
+		regionWidth = json.readValue("regionWidth", Float.class, 0f, jsonData) * worldScale;
+	}
+
+	private static class PathCacheEntry {
+		/** source and target cells */
+		int scx, scy, tcx, tcy;
+		long lastUse;
+		boolean found;
+		final FloatArray path = new FloatArray();
 	}
 }
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.ui;
+
+import java.util.HashMap;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Loads the scene assets for a slice of time every frame, so the screen keeps
+ * rendering and processing input while loading.
+ *
+ * Also measures the time to interactive of every scene: the time from the
+ * start of the loading until the scene is loaded and its init verb has left
+ * the cut mode.
+ *
+ * @author rgarcia
+ */
+public class AssetPump {
+	/** Max. time in ms. loading assets every frame */
+	private static final int FRAME_BUDGET = 10;
+
+	/** Time when the loading started or -1 when not loading */
+	private long startTime = -1;
+
+	/** The scene is loaded, waiting for the end of the cut mode */
+	private boolean loaded = false;
+
+	private String sceneId;
+
+	private final HashMap<String, SceneMetrics> metrics = new HashMap<String, SceneMetrics>();
+
+	/**
+	 * Loads the assets during the frame budget. Must be called every frame
+	 * while the world assets are not loaded.
+	 *
+	 * @return true if all the assets are loaded.
+	 */
+	public boolean update() {
+		if (startTime == -1 || loaded) {
+			// A new scene loading. A previous scene not interactive yet is
+			// discarded.
+			startTime = TimeUtils.millis();
+			loaded = false;
+			sceneId = World.getInstance().getCurrentScene() == null ? null
+					: World.getInstance().getCurrentScene().getId();
+		}
+
+		return EngineAssetManager.getInstance().update(FRAME_BUDGET);
+	}
+
+	/**
+	 * Must be called every frame when the world assets are loaded to measure
+	 * the time to interactive.
+	 */
+	public void updateLoaded() {
+		if (startTime == -1)
+			return;
+
+		loaded = true;
+
+		World w = World.getInstance();
+
+		if (w.inCutMode() || w.getCurrentScene() == null)
+			return;
+
+		long time = TimeUtils.timeSinceMillis(startTime);
+		String id = sceneId != null ? sceneId : w.getCurrentScene().getId();
+
+		SceneMetrics m = metrics.get(id);
+
+		if (m == null) {
+			m = new SceneMetrics();
+			metrics.put(id, m);
+		}
+
+		m.add(time);
+
+		EngineLogger.debug("SCENE TIME TO INTERACTIVE (ms): " + id + " " + time);
+
+		startTime = -1;
+		loaded = false;
+	}
+
+	/**
+	 * @return the loading progress between 0 and 1.
+	 */
+	public float getProgress() {
+		return EngineAssetManager.getInstance().getProgress();
+	}
+
+	/**
+	 * @return the time in ms. since the loading started or 0 if not loading.
+	 */
+	public long getLoadingTime() {
+		return startTime == -1 || loaded ? 0 : TimeUtils.timeSinceMillis(startTime);
+	}
+
+	/**
+	 * @return the time to interactive metrics of the scene or null if the scene
+	 *         was never loaded.
+	 */
+	public SceneMetrics getMetrics(String sceneId) {
+		return metrics.get(sceneId);
+	}
+
+	@Override
+	public String toString() {
+		Object id = World.getInstance().isDisposed() || World.getInstance().getCurrentScene() == null ? null
+				: World.getInstance().getCurrentScene().getId();
+		SceneMetrics m = id == null ? null : metrics.get(id);
+
+		return m == null ? "-" : id + ": " + m;
+	}
+
+	public static class SceneMetrics {
+		private int loads;
+		private long last;
+		private long max;
+		private long total;
+
+		void add(long time) {
+			loads++;
+			last = time;
+			max = Math.max(max, time);
+			total += time;
+		}
+
+		public int getLoads() {
+			return loads;
+		}
+
+		public long getLast() {
+			return last;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public long getAverage() {
+			return loads == 0 ? 0 : total / loads;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("last: %dms, avg: %dms, max: %dms, loads: %d", last, getAverage(), max, loads);
+		}
+	}
+}
@@ -38,6 +38,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.Scene;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.util.Config;
@@ -262,6 +263,21 @@ public class DebugScreen implements BladeScreen {
 		table.add(new Label("Go to Scene: ", ui.getSkin(), "debug"));
 		table.add(scGroup);
 
+		table.row().pad(5).align(Align.left);
+		table.add(new Label("Scene Cache: ", ui.getSkin(), "debug"));
+		table.add(new Label(World.getInstance().getSceneCache().toString(), ui.getSkin(), "debug"));
+
+		table.row().pad(5).align(Align.left);
+		table.add(new Label("Time to Interactive: ", ui.getSkin(), "debug"));
+		table.add(new Label(ui.getAssetPump().toString(), ui.getSkin(), "debug"));
+
+		Scene currentScene = World.getInstance().getCurrentScene();
+
+		table.row().pad(5).align(Align.left);
+		table.add(new Label("Render Stats: ", ui.getSkin(), "debug"));
+		table.add(new Label(currentScene == null ? "-" : currentScene.getRenderStats().toString(), ui.getSkin(),
+				"debug"));
+
 		// ------------- TESTERBOT
 		final TesterBot bot = ui.getTesterBot();
 
@@ -51,6 +51,7 @@ import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.i18n.I18N;
+import com.bladecoder.engine.model.GameStateSaver;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.util.DPIUtils;
@@ -299,10 +300,13 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 
 		FileHandle[] list = EngineAssetManager.getInstance().getUserFolder().list();
 
+		// A slot with only the backup file is a save interrupted before
+		// renaming the new file. It is loaded from the backup.
 		for (FileHandle file : list)
-			if (file.name().endsWith(World.GAMESTATE_EXT)) {
+			if (file.name().endsWith(World.GAMESTATE_EXT)
+					|| file.name().endsWith(World.GAMESTATE_EXT + GameStateSaver.BACKUP_EXT)) {
 				String name = file.name().substring(0, file.name().indexOf(World.GAMESTATE_EXT));
-				if (!name.equals("default"))
+				if (!name.equals("default") && !al.contains(name))
 					al.add(name);
 			}
 
@@ -323,11 +327,9 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 	private Image getScreenshot(String slot) {
 		String filename = slot + World.GAMESTATE_EXT + ".png";
 
-		FileHandle savedFile = null;
+		FileHandle savedFile = GameStateSaver.getSavedFile(EngineAssetManager.getInstance().getUserFile(filename));
 
-		if (EngineAssetManager.getInstance().getUserFile(filename).exists())
-			savedFile = EngineAssetManager.getInstance().getUserFile(filename);
-		else
+		if (!savedFile.exists())
 			savedFile = EngineAssetManager.getInstance().getAsset("tests/" + filename);
 
 		Texture t = new Texture(savedFile);
@@ -440,7 +442,8 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 			final String filename = event.getListenerActor().getName() + World.GAMESTATE_EXT;
 
 			try {
-				world.saveGameState(filename);
+				// the files are written in background to not stop the game
+				world.saveGameStateAsync(filename, null);
 
 				ui.setCurrentScreen(Screens.SCENE_SCREEN);
 
@@ -22,7 +22,6 @@ import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
-import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.util.RectangleRenderer;
 
@@ -38,6 +37,7 @@ public class LoadingScreen extends ScreenAdapter implements BladeScreen {
 	private float squareWidth = 30f;
 	private float squareHeight = 30f;
 	private float margin = 10f;
+	private float barHeight = 4f;
 
 	private float initTime = 0;
 
@@ -50,7 +50,7 @@ public class LoadingScreen extends ScreenAdapter implements BladeScreen {
 	@Override
 	public void render(float delta) {
 
-		if (!EngineAssetManager.getInstance().isLoading()) {
+		if (ui.getAssetPump().update()) {
 			ui.setCurrentScreen(Screens.SCENE_SCREEN);
 			return;
 		}
@@ -75,6 +75,12 @@ public class LoadingScreen extends ScreenAdapter implements BladeScreen {
 			final Color color = i == pos ? Color.WHITE : Color.GRAY;
 			RectangleRenderer.draw(ui.getBatch(), x + i * (squareWidth + margin), y, squareWidth, squareHeight, color);
 		}
+
+		// PROGRESS BAR
+		final float barWidth = squareWidth * numSquares + margin * (numSquares - 1);
+		RectangleRenderer.draw(batch, x, y - margin - barHeight, barWidth, barHeight, Color.DARK_GRAY);
+		RectangleRenderer.draw(batch, x, y - margin - barHeight, barWidth * ui.getAssetPump().getProgress(), barHeight,
+				Color.WHITE);
 		batch.end();
 	}
 
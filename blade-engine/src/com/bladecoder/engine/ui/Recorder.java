@@ -51,6 +51,9 @@ public class Recorder {
 	private int pos;
 	private String fileName = DEFAULT_RECORD_FILENAME;
 
+	/** Number of verbs played since the creation of the recorder */
+	private int played = 0;
+
 	public void update(float delta) {
 
 		if (World.getInstance().isPaused())
@@ -107,6 +110,7 @@ public class Recorder {
 
 				time = 0;
 				pos++;
+				played++;
 				if (pos >= list.size()) {
 					setPlaying(false);
 				} else {
@@ -194,6 +198,14 @@ public class Recorder {
 		pos = 0;
 	}
 
+	public int getPlayedVerbs() {
+		return played;
+	}
+
+	public int getNumVerbs() {
+		return list.size();
+	}
+
 	public void draw(SpriteBatch batch) {
 		if (recording && ((int) time) % 2 == 0) {
 			// RectangleRenderer.draw(batch, 10,
@@ -16,9 +16,11 @@
 package com.bladecoder.engine.ui;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector2;
 import com.bladecoder.engine.model.AnimationRenderer;
 import com.bladecoder.engine.model.BaseActor;
@@ -59,6 +61,12 @@ public class TesterBot {
 	
 	private final boolean inventoryAction;
 
+	/** Shares the libgdx random generator unless a seed is set */
+	private Random random = MathUtils.random;
+	
+	/** Number of verbs, gotos and dialog options run by the bot */
+	private int verbsRun = 0;
+
 	public TesterBot() {
 		inventoryAction = !Config.getProperty(Config.SINGLE_ACTION_INVENTORY, false);
 	}
@@ -78,7 +86,7 @@ public class TesterBot {
 		
 		if (deltaTime > waitInverval && !w.inCutMode()) {
 			deltaTime = 0;
-			waitInverval = MathUtils.random(maxWaitInverval);
+			waitInverval = random.nextFloat() * maxWaitInverval;
 			
 			boolean isWalking = false;
 			SpriteActor player = w.getCurrentScene().getPlayer();
@@ -95,16 +103,16 @@ public class TesterBot {
 			if (w.getCurrentDialog() == null) {
 
 				// Select actor or goto
-				boolean chooseActor = MathUtils.randomBoolean(.75f);
+				boolean chooseActor = random.nextFloat() < .75f;
 
 				if (!isRunGoto() || chooseActor) {
 
 					// Select scene or actor inventory
-					boolean chooseSceneActor = MathUtils.randomBoolean();
+					boolean chooseSceneActor = random.nextBoolean();
 
 					if (chooseSceneActor && s.getActors().size() > 0) {
 						// SCENE ACTOR
-						int pos = MathUtils.random(s.getActors().size() - 1);
+						int pos = random.nextInt(s.getActors().size());
 						BaseActor a = (BaseActor) (s.getActors().values().toArray()[pos]);
 						
 						if(!(a instanceof InteractiveActor))
@@ -120,7 +128,7 @@ public class TesterBot {
 
 						if (scnActor.getVerb(Verb.LEAVE_VERB) != null) {
 							verb = Verb.LEAVE_VERB;
-						} else if (MathUtils.randomBoolean(0.33f)) {
+						} else if (random.nextFloat() < 0.33f) {
 							// LOOKAT
 							verb = Verb.LOOKAT_VERB;
 						} else {
@@ -132,34 +140,37 @@ public class TesterBot {
 						if(!(verb.equals(Verb.LEAVE_VERB) && (!runLeaveVerbs || inSceneTime > inSceneTimeDelta))) {
 							EngineLogger.debug("<TESTERBOT>: " + scnActor.getId() + "::" + verb);
 							scnActor.runVerb(verb);
+							verbsRun++;
 							
 							if(verb.equals(Verb.LEAVE_VERB))
 								inSceneTimeDelta = 0;
 						}
 					} else if (w.getInventory().getNumItems() > 0 && w.getInventory().isVisible()) {
 						// INVENTORY ACTOR
-						int pos = MathUtils.random(w.getInventory().getNumItems() - 1);
+						int pos = random.nextInt(w.getInventory().getNumItems());
 						SpriteActor invActor = w.getInventory().getItem(pos);
 						
 						if(excludeList.contains(invActor.getId()))
 							return;
 
 						// Select lookat, action or use
-						int choosedVerb = MathUtils.random(3);
+						int choosedVerb = random.nextInt(4);
 
 						if (choosedVerb == 0) {
 							EngineLogger.debug("<TESTERBOT> INVENTORY: " + invActor.getId() + "::" + Verb.LOOKAT_VERB);
 							invActor.runVerb(Verb.LOOKAT_VERB);
+							verbsRun++;
 						} else if (choosedVerb == 1 && inventoryAction) {
 							EngineLogger.debug("<TESTERBOT> INVENTORY: " + invActor.getId() + "::" + Verb.ACTION_VERB);
 							invActor.runVerb(Verb.ACTION_VERB);
+							verbsRun++;
 						} else { // 2 and 3
 
 							InteractiveActor targetActor = null;
 
-							if (w.getInventory().getNumItems() > 1 && MathUtils.randomBoolean(0.33f)) {
+							if (w.getInventory().getNumItems() > 1 && random.nextFloat() < 0.33f) {
 								// CHOOSE TARGET FROM INVENTORY
-								int pos2 = MathUtils.random(w.getInventory().getNumItems() - 1);
+								int pos2 = random.nextInt(w.getInventory().getNumItems());
 
 								if (pos2 == pos)
 									pos2 = (pos2 + 1) % w.getInventory().getNumItems();
@@ -175,8 +186,10 @@ public class TesterBot {
 									invActor.runVerb(Verb.USE_VERB, targetActor.getId());
 								else
 									targetActor.runVerb(Verb.USE_VERB, invActor.getId());
+								
+								verbsRun++;
 							} else {
-								int pos2 = MathUtils.random(s.getActors().size() - 1);
+								int pos2 = random.nextInt(s.getActors().size());
 								
 								if(!(s.getActors().values().toArray()[pos2] instanceof InteractiveActor))
 									return;
@@ -190,14 +203,16 @@ public class TesterBot {
 										invActor.runVerb(Verb.USE_VERB, targetActor.getId());
 									else
 										targetActor.runVerb(Verb.USE_VERB, invActor.getId());
+									
+									verbsRun++;
 								}
 							}
 						}
 					}
 
 				} else if (s.getPlayer() != null) {
-					gotoVector.x = MathUtils.random() * w.getCurrentScene().getCamera().getScrollingWidth();
-					gotoVector.y = MathUtils.random() * w.getCurrentScene().getCamera().getScrollingHeight();
+					gotoVector.x = random.nextFloat() * w.getCurrentScene().getCamera().getScrollingWidth();
+					gotoVector.y = random.nextFloat() * w.getCurrentScene().getCamera().getScrollingHeight();
 
 					if (s.getPlayer().getVerb(Verb.GOTO_VERB) != null) {
 						EngineLogger.debug("<TESTERBOT> GOTO: GOTO VERB");
@@ -206,15 +221,18 @@ public class TesterBot {
 						EngineLogger.debug("<TESTERBOT> GOTO: " + gotoVector);
 						s.getPlayer().goTo(gotoVector, null);
 					}
+					
+					verbsRun++;
 				}
 			} else {
 				// DIALOG MODE
 				ArrayList<DialogOption> visibleOptions = w.getCurrentDialog().getVisibleOptions();
 				
 				if(visibleOptions.size() > 0) {
-					int pos = MathUtils.random(visibleOptions.size() - 1);
+					int pos = random.nextInt(visibleOptions.size());
 					EngineLogger.debug("<TESTERBOT> SELECT OPTION: " + pos);
 					w.selectVisibleDialogOption(pos);
+					verbsRun++;
 				}
 			}
 		} 
@@ -226,6 +244,18 @@ public class TesterBot {
 		}
 	}	
 
+	/**
+	 * Uses its own random generator with the seed, so the bot choices can be
+	 * repeated.
+	 */
+	public void setSeed(long seed) {
+		random = new RandomXS128(seed);
+	}
+	
+	public int getVerbsRun() {
+		return verbsRun;
+	}
+
 	public boolean isEnabled() {
 		return enabled;
 	}
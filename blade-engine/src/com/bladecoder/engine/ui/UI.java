@@ -37,6 +37,7 @@ public class UI {
 
 	private final Recorder recorder = new Recorder();
 	private final TesterBot testerBot = new TesterBot();
+	private final AssetPump assetPump = new AssetPump();
 	
 	private boolean fullscreen = false;
 
@@ -83,6 +84,10 @@ public class UI {
 		return testerBot;
 	}
 	
+	public AssetPump getAssetPump() {
+		return assetPump;
+	}
+	
 	private BladeScreen getCustomScreenInstance(String prop, Class<?> defaultClass) {
 		String clsName = Config.getProperty(prop, null);
 		Class<?> instanceClass = defaultClass;
@@ -44,7 +44,6 @@ import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.UIUtils;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.Viewport;
-import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.i18n.I18N;
 import com.bladecoder.engine.model.AnchorActor;
 import com.bladecoder.engine.model.BaseActor;
@@ -56,6 +55,7 @@ import com.bladecoder.engine.model.Transition;
 import com.bladecoder.engine.model.Verb;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.model.World.AssetState;
+import com.bladecoder.engine.ui.AssetPump;
 import com.bladecoder.engine.ui.DialogUI;
 import com.bladecoder.engine.ui.InventoryButton;
 import com.bladecoder.engine.ui.InventoryUI;
@@ -389,27 +389,25 @@ public class DefaultSceneScreen implements SceneScreen {
 				world.update(0);
 			}
 
-			// TRY TO LOAD THE ASSETS FOR LOADING_WAIT_TIME_MS TO AVOID
-			// BLACK/LOADING SCREEN
-			long t0 = System.currentTimeMillis();
-			long t = t0;
-			while (EngineAssetManager.getInstance().isLoading() && t - t0 < LOADING_WAIT_TIME_MS) {
-				t = System.currentTimeMillis();
-			}
+			// LOAD THE ASSETS A SLICE OF TIME EVERY FRAME. THE LOADING SCREEN
+			// IS ONLY SHOWN IF LOADING TAKES MORE THAN LOADING_WAIT_TIME_MS
+			AssetPump pump = ui.getAssetPump();
 
-			if (t - t0 >= LOADING_WAIT_TIME_MS) {
-				// Sets loading screen if resources are not loaded yet
-				ui.setCurrentScreen(Screens.LOADING_SCREEN);
-			} else {
+			if (pump.update()) {
 				world.resize(viewport.getWorldWidth(), viewport.getWorldHeight());
 
 				// update() to retrieve assets and exec init verb
 				world.update(0);
+			} else if (pump.getLoadingTime() >= LOADING_WAIT_TIME_MS) {
+				// Sets loading screen if resources are not loaded yet
+				ui.setCurrentScreen(Screens.LOADING_SCREEN);
 			}
 
 			return;
 		}
 
+		ui.getAssetPump().updateLoaded();
+
 		// CHECK FOR STATE CHANGES
 		switch (state) {
 		case CUT_MODE:
@@ -561,12 +559,26 @@ public class DefaultSceneScreen implements SceneScreen {
 
 		update(delta);
 
+		SpriteBatch batch = ui.getBatch();
+
 		if (world.getAssetState() != AssetState.LOADED) {
+			// While the pump is loading, the transition is drawn as in the
+			// last frame. The fade out used to leave a scene stays in screen
+			// when finished, so the screen doesn't change until the new scene
+			// is loaded.
+			Gdx.gl.glClearColor(0, 0, 0, 1);
+			Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+			if (!world.isDisposed() && world.getTransition() != null) {
+				batch.setProjectionMatrix(viewport.getCamera().combined);
+				batch.begin();
+				world.getTransition().draw(batch, viewport.getScreenWidth(), viewport.getScreenHeight());
+				batch.end();
+			}
+
 			return;
 		}
 
-		SpriteBatch batch = ui.getBatch();
-
 		Gdx.gl.glClearColor(0, 0, 0, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
@@ -329,6 +329,8 @@ public class RetroSceneScreen implements SceneScreen {
 			return;
 		}
 
+		ui.getAssetPump().updateLoaded();
+
 		// CHECK FOR STATE CHANGES
 		switch (state) {
 		case CUT_MODE:
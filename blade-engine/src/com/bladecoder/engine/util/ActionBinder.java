@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import com.bladecoder.engine.actions.Action;
+import com.bladecoder.engine.actions.ActionProperty;
+import com.bladecoder.engine.actions.ActorAnimationRef;
+import com.bladecoder.engine.actions.Param;
+import com.bladecoder.engine.actions.SceneActorRef;
+
+/**
+ * Creates actions and sets/gets their params without searching the class
+ * hierarchy every time.
+ *
+ * The fields and the conversion to use for every field are resolved once per
+ * action class, the binders are cached.
+ *
+ * @author rgarcia
+ */
+public class ActionBinder {
+	private static final ConcurrentHashMap<Class<?>, ActionBinder> binders = new ConcurrentHashMap<Class<?>, ActionBinder>();
+
+	private enum Conversion {
+		STRING, BOOLEAN, BOOLEAN_OBJ, FLOAT, FLOAT_OBJ, INT, VECTOR2, SCENE_ACTOR, ACTOR_ANIMATION, COLOR, ENUM, NOT_SUPPORTED
+	}
+
+	private final Class<?> clazz;
+	private Constructor<?> constructor;
+
+	/** All the fields by name, the subclass fields hide the superclass ones */
+	private final HashMap<String, FieldBinder> fields = new HashMap<String, FieldBinder>();
+
+	/** The fields with the {@link ActionProperty} annotation */
+	private final FieldBinder[] properties;
+	private final String[] propertyNames;
+
+	public static ActionBinder get(Class<?> clazz) {
+		ActionBinder b = binders.get(clazz);
+
+		if (b == null) {
+			b = new ActionBinder(clazz);
+			ActionBinder old = binders.putIfAbsent(clazz, b);
+
+			if (old != null)
+				b = old;
+		}
+
+		return b;
+	}
+
+	/**
+	 * Removes the cached binders. Must be called when the action classes are
+	 * reloaded.
+	 */
+	public static void clearCache() {
+		binders.clear();
+	}
+
+	private ActionBinder(Class<?> clazz) {
+		this.clazz = clazz;
+
+		ArrayList<FieldBinder> props = new ArrayList<FieldBinder>();
+		Class<?> current = clazz;
+
+		while (current != null && current != Object.class) {
+			for (Field field : current.getDeclaredFields()) {
+				FieldBinder fb = new FieldBinder(field);
+
+				if (!fields.containsKey(field.getName()))
+					fields.put(field.getName(), fb);
+
+				if (field.getAnnotation(ActionProperty.class) != null)
+					props.add(fb);
+			}
+
+			current = current.getSuperclass();
+		}
+
+		properties = props.toArray(new FieldBinder[props.size()]);
+		propertyNames = new String[properties.length];
+
+		for (int i = 0; i < properties.length; i++)
+			propertyNames[i] = properties[i].field.getName();
+	}
+
+	public Action newInstance() throws ReflectionException {
+		try {
+			if (constructor == null) {
+				Constructor<?> c = clazz.getDeclaredConstructor();
+				c.setAccessible(true);
+				constructor = c;
+			}
+
+			return (Action) constructor.newInstance();
+		} catch (Exception e) {
+			throw new ReflectionException("Could not instantiate instance of class: " + clazz.getName(), e);
+		}
+	}
+
+	/**
+	 * The names of the fields with the {@link ActionProperty} annotation. The
+	 * returned array must not be modified.
+	 */
+	public String[] getPropertyNames() {
+		return propertyNames;
+	}
+
+	public boolean hasField(String param) {
+		return fields.containsKey(param);
+	}
+
+	public void setParam(Action action, String param, String value)
+			throws NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
+		getFieldBinder(param).set(action, value);
+	}
+
+	public String getStringValue(Action action, String param)
+			throws NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
+		return getFieldBinder(param).get(action);
+	}
+
+	public void writeJson(Action action, Json json) {
+		json.writeObjectStart(clazz, null);
+
+		for (FieldBinder fb : properties) {
+			try {
+				Object o = fb.field.get(action);
+
+				// doesn't write null fields
+				if (o == null)
+					continue;
+
+				switch (fb.conversion) {
+				case SCENE_ACTOR:
+				case ACTOR_ANIMATION:
+				case COLOR:
+					json.writeValue(fb.field.getName(), o.toString());
+					break;
+				case VECTOR2:
+					json.writeValue(fb.field.getName(), Param.toStringParam((Vector2) o));
+					break;
+				default:
+					json.writeValue(fb.field.getName(), o);
+				}
+			} catch (IllegalArgumentException | IllegalAccessException e) {
+
+			}
+		}
+
+		json.writeObjectEnd();
+	}
+
+	private FieldBinder getFieldBinder(String param) throws NoSuchFieldException {
+		FieldBinder fb = fields.get(param);
+
+		if (fb == null)
+			throw new NoSuchFieldException(param);
+
+		return fb;
+	}
+
+	private static Conversion getConversion(Class<?> type) {
+		if (type.isAssignableFrom(String.class)) {
+			return Conversion.STRING;
+		} else if (type.isAssignableFrom(boolean.class)) {
+			return Conversion.BOOLEAN;
+		} else if (type.isAssignableFrom(Boolean.class)) {
+			return Conversion.BOOLEAN_OBJ;
+		} else if (type.isAssignableFrom(float.class)) {
+			return Conversion.FLOAT;
+		} else if (type.isAssignableFrom(Float.class)) {
+			return Conversion.FLOAT_OBJ;
+		} else if (type.isAssignableFrom(int.class)) {
+			return Conversion.INT;
+		} else if (type.isAssignableFrom(Vector2.class)) {
+			return Conversion.VECTOR2;
+		} else if (type.isAssignableFrom(SceneActorRef.class)) {
+			return Conversion.SCENE_ACTOR;
+		} else if (type.isAssignableFrom(ActorAnimationRef.class)) {
+			return Conversion.ACTOR_ANIMATION;
+		} else if (type.isAssignableFrom(Color.class)) {
+			return Conversion.COLOR;
+		} else if (type.isEnum()) {
+			return Conversion.ENUM;
+		}
+
+		return Conversion.NOT_SUPPORTED;
+	}
+
+	private static class FieldBinder {
+		final Field field;
+		final Conversion conversion;
+
+		FieldBinder(Field field) {
+			this.field = field;
+			field.setAccessible(true);
+			conversion = getConversion(field.getType());
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		void set(Action action, String value) throws IllegalArgumentException, IllegalAccessException {
+			switch (conversion) {
+			case STRING:
+				field.set(action, value);
+				break;
+			case BOOLEAN:
+				field.setBoolean(action, Boolean.parseBoolean(value));
+				break;
+			case BOOLEAN_OBJ:
+				field.set(action, value == null ? null : Boolean.valueOf(value));
+				break;
+			case FLOAT:
+				try {
+					if (value != null)
+						field.setFloat(action, Float.parseFloat(value));
+				} catch (NumberFormatException ignored) {
+				}
+				break;
+			case FLOAT_OBJ:
+				try {
+					field.set(action, value == null ? null : Float.valueOf(value));
+				} catch (NumberFormatException ignored) {
+				}
+				break;
+			case INT:
+				try {
+					if (value != null)
+						field.setInt(action, Integer.parseInt(value));
+				} catch (NumberFormatException ignored) {
+				}
+				break;
+			case VECTOR2:
+				field.set(action, Param.parseVector2(value));
+				break;
+			case SCENE_ACTOR:
+				field.set(action, value == null ? null : new SceneActorRef(value));
+				break;
+			case ACTOR_ANIMATION:
+				field.set(action, value == null ? null : new ActorAnimationRef(value));
+				break;
+			case COLOR:
+				field.set(action, Param.parseColor(value));
+				break;
+			case ENUM:
+				field.set(action, value == null ? null
+						: Enum.valueOf((Class<Enum>) field.getType(), value.toUpperCase(Locale.ENGLISH)));
+				break;
+			default:
+				EngineLogger.error("ACTION FIELD TYPE NOT SUPPORTED -  type: " + field.getType());
+			}
+		}
+
+		String get(Action action) throws IllegalArgumentException, IllegalAccessException {
+			switch (conversion) {
+			case STRING:
+				return (String) field.get(action);
+			case BOOLEAN:
+				return Boolean.toString(field.getBoolean(action));
+			case FLOAT:
+				return Float.toString(field.getFloat(action));
+			case INT:
+				return Integer.toString(field.getInt(action));
+			case VECTOR2:
+				return Param.toStringParam((Vector2) field.get(action));
+			case ENUM: {
+				Object o = field.get(action);
+				return o == null ? null : ((Enum<?>) o).name();
+			}
+			case NOT_SUPPORTED:
+				EngineLogger.error("ACTION FIELD TYPE NOT SUPPORTED -  type: " + field.getType());
+				return null;
+			default: {
+				Object o = field.get(action);
+				return o == null ? null : o.toString();
+			}
+			}
+		}
+	}
+}
@@ -15,6 +15,9 @@
  ******************************************************************************/
 package com.bladecoder.engine.util;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
 import com.bladecoder.engine.actions.Action;
 import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.ink.InkManager;
@@ -22,6 +25,7 @@ import com.bladecoder.engine.model.BaseActor;
 import com.bladecoder.engine.model.InteractiveActor;
 import com.bladecoder.engine.model.Scene;
 import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.model.VerbManager;
 import com.bladecoder.engine.model.World;
 
 /**
@@ -40,6 +44,11 @@ import com.bladecoder.engine.model.World;
  * If actorId == "DEFAULT_VERB" the ActionCallback is searched in the World default verbs.
  * If actorId == current scene ID the ActionCallback is searched in the current scene verbs.
  * 
+ * The ids of the verbs and actions are registered when the model is loaded,
+ * so the ids are obtained without searching all the verbs of the scene. The
+ * ActionCallbacks not registered (Ink actions, actors added later...) are
+ * searched.
+ * 
  * @author rgarcia
  */
 public class ActionCallbackSerialization {
@@ -48,6 +57,54 @@ public class ActionCallbackSerialization {
 	private static final String INK_MANAGER_TAG = "INK_MANAGER";
 	private static final String DEFAULT_VERB_TAG = "DEFAULT_VERB";
 
+	/** The id of every registered verb and action */
+	private static final IdMap globalIds = new IdMap();
+
+	/**
+	 * Registers the verbs and actions of the scene and its actors.
+	 */
+	public static void register(Scene s) {
+		register(s.getId(), s.getVerbManager());
+
+		for (BaseActor a : s.getActors().values()) {
+			if (a instanceof InteractiveActor)
+				register(a.getId(), ((InteractiveActor) a).getVerbManager());
+		}
+	}
+
+	/**
+	 * Registers the World default verbs and actions.
+	 */
+	public static void registerDefaultVerbs(VerbManager vm) {
+		register(DEFAULT_VERB_TAG, vm);
+	}
+
+	/**
+	 * Removes all the registered ids. Called when the chapter changes.
+	 */
+	public static void clear() {
+		ids().clear();
+	}
+
+	private static void register(String ownerId, VerbManager vm) {
+		IdMap ids = ids();
+
+		for (Verb v : vm.getVerbs().values()) {
+			String id = ownerId + SEPARATION_SYMBOL + v.getHashKey();
+
+			ids.put(v, id);
+
+			ArrayList<Action> actions = v.getActions();
+
+			for (int pos = 0; pos < actions.size(); pos++) {
+				Action a = actions.get(pos);
+
+				if (a instanceof ActionCallback)
+					ids.put((ActionCallback) a, id + SEPARATION_SYMBOL + pos);
+			}
+		}
+	}
+
 	private static String find(ActionCallback cb, Verb v) {
 		String id = v.getHashKey();
 
@@ -144,6 +201,13 @@ public class ActionCallbackSerialization {
 
 		if (cb == null)
 			return null;
+
+		// The registered id is only valid if it can be located from the
+		// current scene and the verb actions didn't change (in the editor).
+		id = ids().get(cb);
+
+		if (id != null && find(id) == cb)
+			return id;
 			
 		// search in inkManager actions
 		id = find(cb, World.getInstance().getInkManager());
@@ -199,28 +263,29 @@ public class ActionCallbackSerialization {
 		
 		Scene s = World.getInstance().getCurrentScene();
 
-		String[] split = id.split(SEPARATION_SYMBOL);
+		int sep1 = id.indexOf(SEPARATION_SYMBOL);
+		int sep2 = sep1 == -1 ? -1 : id.indexOf(SEPARATION_SYMBOL, sep1 + 1);
 		
 		if(id.startsWith(INK_MANAGER_TAG)) {
-			if(split.length == 1)
+			if(sep1 == -1)
 				return World.getInstance().getInkManager();
 			
-			int actionPos = Integer.parseInt(split[1]);
+			int actionPos = Integer.parseInt(id.substring(sep1 + 1));
 			Action action = World.getInstance().getInkManager().getActions().get(actionPos);
 
 			if (action instanceof ActionCallback)
 				return (ActionCallback) action;
 		}
 
-		if (split.length < 2)
+		if (sep1 == -1)
 			return null;
 
-		String actorId = split[0];
-		String verbId = split[1];
+		String actorId = id.substring(0, sep1);
+		String verbId = sep2 == -1 ? id.substring(sep1 + 1) : id.substring(sep1 + 1, sep2);
 		int actionPos = -1;
 
-		if (split.length > 2)
-			actionPos = Integer.parseInt(split[2]);
+		if (sep2 != -1)
+			actionPos = Integer.parseInt(id.substring(sep2 + 1));
 
 		Verb v = null;
 
@@ -245,9 +310,12 @@ public class ActionCallbackSerialization {
 		if (v == null)
 			return null;
 
-		if (split.length == 2)
+		if (actionPos == -1)
 			return v;
 
+		if (actionPos >= v.getActions().size())
+			return null;
+
 		Action action = v.getActions().get(actionPos);
 
 		if (action instanceof ActionCallback)
@@ -255,4 +323,27 @@ public class ActionCallbackSerialization {
 
 		return null;
 	}
+
+	/**
+	 * The ids of the engine context bound to the thread or the global ones.
+	 */
+	private static IdMap ids() {
+		EngineContext ctx = EngineContext.current();
+
+		if (ctx == null)
+			return globalIds;
+
+		IdMap ids = ctx.get(IdMap.class);
+
+		if (ids == null) {
+			ids = new IdMap();
+			ctx.put(IdMap.class, ids);
+		}
+
+		return ids;
+	}
+
+	@SuppressWarnings("serial")
+	private static class IdMap extends IdentityHashMap<ActionCallback, String> {
+	}
 }
@@ -3,7 +3,6 @@ package com.bladecoder.engine.util;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
@@ -80,21 +79,7 @@ public class ActionUtils {
 	}
 	
 	public static String[] getFieldNames(Action a) {
-		List<String> result = new ArrayList<>();
-		Class<?> clazz = a.getClass();
-		while (clazz != null && clazz != Object.class) {
-			for (Field field : clazz.getDeclaredFields()) {
-				final ActionProperty property = field.getAnnotation(ActionProperty.class);
-				if (property == null) {
-					continue;
-				}
-
-				final String name = field.getName();
-				result.add(name);
-			}
-			clazz = clazz.getSuperclass();
-		}
-		return result.toArray(new String[result.size()]);
+		return ActionBinder.get(a.getClass()).getPropertyNames().clone();
 	}
 	
 	private static Type getType(Field field) {
@@ -127,142 +112,12 @@ public class ActionUtils {
 		return Param.Type.NOT_SET;
 	}
 
-	@SuppressWarnings("unchecked")
 	public static void setParam(Action action, String param, String value) throws NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
-		Class<?> clazz = action.getClass();
-		
-		Field field = getField(clazz, param);
-		
-		if(field == null)
-			throw new NoSuchFieldException(param);
-		
-		
-		final boolean accessible = field.isAccessible();
-		field.setAccessible(true);
-
-		if(field.getType().isAssignableFrom(String.class)) {
-			field.set(action, value);
-		} else if(field.getType().isAssignableFrom(boolean.class)) {
-			field.setBoolean(action, Boolean.parseBoolean(value));
-		} else if(field.getType().isAssignableFrom(Boolean.class)) {
-			Boolean b = null;
-			
-			if(value != null)
-				b = Boolean.valueOf(value);
-			
-			field.set(action, b);
-		} else if(field.getType().isAssignableFrom(float.class)) {
-			try {
-				field.setFloat(action, Float.parseFloat(value));
-			} catch (NumberFormatException ignored) {
-			}		
-		} else if(field.getType().isAssignableFrom(Float.class)) {
-			try {
-				Float f = null;
-				
-				if(value != null)
-					f = Float.valueOf(value);
-				
-				field.set(action, f);
-			} catch (NumberFormatException ignored) {
-			}				
-		} else if(field.getType().isAssignableFrom(int.class)) {
-			try {
-				Integer i = null;
-				
-				if(value != null)
-					i = Integer.parseInt(value);
-				
-				field.setInt(action, i);
-			} catch (NumberFormatException ignored) {
-			}
-		} else if(field.getType().isAssignableFrom(Vector2.class)) {
-			field.set(action, Param.parseVector2(value));
-		} else if(field.getType().isAssignableFrom(SceneActorRef.class)) {
-			if(value == null)
-				field.set(action, null);
-			else
-				field.set(action, new SceneActorRef(value));
-		} else if(field.getType().isAssignableFrom(ActorAnimationRef.class)) {
-			if(value == null)
-				field.set(action, null);
-			else
-				field.set(action, new ActorAnimationRef(value));
-		} else if(field.getType().isAssignableFrom(Color.class)) {
-			Color a = Param.parseColor(value);
-			
-			field.set(action, a);			
-		} else if (field.getType().isEnum()) {
-			field.set(action, Enum.valueOf(field.getType().asSubclass(Enum.class), value.toUpperCase(Locale.ENGLISH)));
-		} else {
-			EngineLogger.error("ACTION FIELD TYPE NOT SUPPORTED -  type: " + field.getType());
-		}
-
-		field.setAccessible(accessible);
+		ActionBinder.get(action.getClass()).setParam(action, param, value);
 	}
 	
-	
 	public static String getStringValue(Action a, String param) throws NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
-		String result = null;
-		
-		Class<?> clazz = a.getClass();
-		
-		Field field = getField(clazz, param);
-		
-		if(field == null)
-			throw new NoSuchFieldException(param);
-		
-		
-		final boolean accessible = field.isAccessible();
-		field.setAccessible(true);
-
-		if(field.getType().isAssignableFrom(String.class)) {
-			result = (String)field.get(a);
-		} else if(field.getType().isAssignableFrom(boolean.class)) {
-			result = Boolean.toString(field.getBoolean(a));
-		} else if(field.getType().isAssignableFrom(Boolean.class)) {
-			Object o = field.get(a);
-			
-			if(o != null)
-				result = o.toString();
-		} else if(field.getType().isAssignableFrom(float.class)) {
-			result = Float.toString(field.getFloat(a));		
-		} else if(field.getType().isAssignableFrom(Float.class)) {
-			Object o = field.get(a);
-			
-			if(o != null)
-				result = o.toString();			
-		} else if(field.getType().isAssignableFrom(int.class)) {
-			result = Integer.toString(field.getInt(a));
-		} else if(field.getType().isAssignableFrom(Vector2.class)) {
-			result = Param.toStringParam((Vector2)field.get(a));
-		} else if(field.getType().isAssignableFrom(SceneActorRef.class)) {
-			Object o = field.get(a);
-			
-			if(o != null)
-				result = o.toString();
-		} else if(field.getType().isAssignableFrom(ActorAnimationRef.class)) {
-			Object o = field.get(a);
-			
-			if(o != null)
-				result = o.toString();
-		} else if(field.getType().isAssignableFrom(Color.class)) {
-			Object o = field.get(a);
-			
-			if(o != null)
-				result = o.toString();		
-		} else if (field.getType().isEnum()) {
-			Object o = field.get(a);
-			
-			if(o != null)
-				result = ((Enum<?>)o).name();	
-		} else {
-			EngineLogger.error("ACTION FIELD TYPE NOT SUPPORTED -  type: " + field.getType());
-		}
-
-		field.setAccessible(accessible);
-		
-		return result;
+		return ActionBinder.get(a.getClass()).getStringValue(a, param);
 	}
 	
 	public static Field getField(Class<?> clazz, String fieldName) {
@@ -278,69 +133,32 @@ public class ActionUtils {
 	}
 	
 	public static void writeJson(Action a, Json json) {
-		Class<?> clazz = a.getClass();
-		json.writeObjectStart(clazz, null);
-		while (clazz != null && clazz != Object.class) {
-			for (Field field : clazz.getDeclaredFields()) {
-				final ActionProperty property = field.getAnnotation(ActionProperty.class);
-				if (property == null) {
-					continue;
-				}
-
-				// json.writeField(a, field.getName());
-				final boolean accessible = field.isAccessible();
-				field.setAccessible(true);
-
-				try {
-					Object o = field.get(a);
-
-					// doesn't write null fields
-					if (o == null)
-						continue;
-
-					if(o instanceof SceneActorRef) {
-						SceneActorRef sceneActor = (SceneActorRef)o;
-						json.writeValue(field.getName(), sceneActor.toString());
-					} else if(o instanceof ActorAnimationRef) {
-						ActorAnimationRef aa = (ActorAnimationRef)o;
-						json.writeValue(field.getName(), aa.toString());
-					} else if(o instanceof Color) {
-						json.writeValue(field.getName(), ((Color)o).toString());
-					} else if(o instanceof Vector2) {
-						json.writeValue(field.getName(), Param.toStringParam((Vector2) o));
-					} else {
-						json.writeValue(field.getName(), o);
-					}
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-
-				}
-
-				field.setAccessible(accessible);
-			}
-			clazz = clazz.getSuperclass();
-		}
-		json.writeObjectEnd();		
+		ActionBinder.get(a.getClass()).writeJson(a, json);
 	}
 	
 	public static Action readJson(Json json, JsonValue jsonData) {
 		String className = jsonData.getString("class", null);
 		Action action = null;
 		if (className != null) {
-			jsonData.remove("class");
+			ActionBinder binder;
 			
 			try {
-				action = ActionFactory.createByClass(className, null);
+				Class<?> c = ActionFactory.getActionClass(className);
+				binder = ActionBinder.get(c);
+				action = binder.newInstance();
 			} catch (ClassNotFoundException | ReflectionException e1) {
 				throw new SerializationException(e1);
 			}
 			
-			for(int j = 0; j<jsonData.size; j++) {
-				JsonValue v = jsonData.get(j);
+			for(JsonValue v = jsonData.child; v != null; v = v.next) {
+				if("class".equals(v.name))
+					continue;
+				
 				try {
 					if(v.isNull())
-						ActionUtils.setParam(action, v.name, null);
+						binder.setParam(action, v.name, null);
 					else
-						ActionUtils.setParam(action, v.name, v.asString());
+						binder.setParam(action, v.name, v.asString());
 				} catch (NoSuchFieldException e) {
 					EngineLogger.debug("Action field not found - class: " + className + " field: " + v.name);
 				} catch (IllegalArgumentException | IllegalAccessException e) {
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/**
+ * Reads the format written by {@link BinaryJsonWriter} into a JsonValue tree,
+ * so it can be passed to the existing 'Serializable.read()' implementations.
+ *
+ * @author rgarcia
+ */
+public class BinaryJsonReader {
+	private DataInputStream in;
+	private final ArrayList<String> strings = new ArrayList<String>();
+
+	/**
+	 * Read-only string table shared by the streams of a chapter bundle. The
+	 * strings defined in the stream are numbered after it.
+	 */
+	private List<String> sharedStrings = Collections.emptyList();
+
+	/**
+	 * @return true if the file starts with the binary format magic number.
+	 */
+	public static boolean isBinary(FileHandle file) {
+		if (!file.exists())
+			return false;
+
+		DataInputStream in = new DataInputStream(file.read());
+
+		try {
+			return in.readInt() == BinaryJsonWriter.MAGIC;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			StreamUtils.closeQuietly(in);
+		}
+	}
+
+	public JsonValue parse(FileHandle file) throws IOException {
+		return parse(file.read());
+	}
+
+	public JsonValue parse(InputStream input) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(input));
+		strings.clear();
+		sharedStrings = Collections.emptyList();
+
+		try {
+			if (in.readInt() != BinaryJsonWriter.MAGIC)
+				throw new IOException("Not a binary game state");
+
+			int version = in.readUnsignedByte();
+
+			if (version > BinaryJsonWriter.VERSION)
+				throw new IOException("Unsupported binary game state version: " + version);
+
+			return readValue(in.readUnsignedByte());
+		} finally {
+			StreamUtils.closeQuietly(in);
+			in = null;
+		}
+	}
+
+	/**
+	 * Reads a token stream without header written with a shared string table.
+	 * The table is not copied or modified.
+	 */
+	public JsonValue parse(InputStream input, List<String> stringTable) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(input));
+		strings.clear();
+		sharedStrings = stringTable;
+
+		try {
+			return readValue(in.readUnsignedByte());
+		} finally {
+			StreamUtils.closeQuietly(in);
+			in = null;
+			sharedStrings = Collections.emptyList();
+		}
+	}
+
+	private JsonValue readValue(int tag) throws IOException {
+		switch (tag) {
+		case BinaryJsonWriter.NULL:
+			return new JsonValue(ValueType.nullValue);
+		case BinaryJsonWriter.TRUE:
+			return new JsonValue(true);
+		case BinaryJsonWriter.FALSE:
+			return new JsonValue(false);
+		case BinaryJsonWriter.INT:
+			return new JsonValue(readVarLong());
+		case BinaryJsonWriter.FLOAT:
+			return new JsonValue(in.readFloat());
+		case BinaryJsonWriter.DOUBLE:
+			return new JsonValue(in.readDouble());
+		case BinaryJsonWriter.STRING:
+		case BinaryJsonWriter.STRING_DEF:
+		case BinaryJsonWriter.STRING_REF:
+			return new JsonValue(readString(tag));
+		case BinaryJsonWriter.OBJECT:
+			return readObject();
+		case BinaryJsonWriter.ARRAY:
+			return readArray();
+		default:
+			throw new IOException("Invalid tag in binary game state: " + tag);
+		}
+	}
+
+	private JsonValue readObject() throws IOException {
+		JsonValue object = new JsonValue(ValueType.object);
+		JsonValue last = null;
+		int tag;
+
+		while ((tag = in.readUnsignedByte()) != BinaryJsonWriter.END) {
+			String name = readString(tag);
+			JsonValue child = readValue(in.readUnsignedByte());
+
+			child.name = name;
+			last = addChild(object, last, child);
+		}
+
+		return object;
+	}
+
+	private JsonValue readArray() throws IOException {
+		JsonValue array = new JsonValue(ValueType.array);
+		JsonValue last = null;
+		int tag;
+
+		while ((tag = in.readUnsignedByte()) != BinaryJsonWriter.END)
+			last = addChild(array, last, readValue(tag));
+
+		return array;
+	}
+
+	private JsonValue addChild(JsonValue parent, JsonValue last, JsonValue child) {
+		child.parent = parent;
+
+		if (last == null) {
+			parent.child = child;
+		} else {
+			last.next = child;
+			child.prev = last;
+		}
+
+		parent.size++;
+
+		return child;
+	}
+
+	private String readString(int tag) throws IOException {
+		switch (tag) {
+		case BinaryJsonWriter.STRING:
+			return readUTF8();
+		case BinaryJsonWriter.STRING_DEF:
+			String s = readUTF8();
+			strings.add(s);
+			return s;
+		case BinaryJsonWriter.STRING_REF:
+			int i = readVarInt();
+
+			return i < sharedStrings.size() ? sharedStrings.get(i) : strings.get(i - sharedStrings.size());
+		default:
+			throw new IOException("String expected in binary game state, found tag: " + tag);
+		}
+	}
+
+	private String readUTF8() throws IOException {
+		byte[] bytes = new byte[readVarInt()];
+
+		in.readFully(bytes);
+
+		return new String(bytes, "UTF-8");
+	}
+
+	private int readVarInt() throws IOException {
+		int v = 0;
+
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			v |= (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0)
+				return v;
+		}
+
+		throw new IOException("Malformed varint in binary game state");
+	}
+
+	private long readVarLong() throws IOException {
+		long v = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			v |= (long) (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0)
+				return (v >>> 1) ^ -(v & 1);
+		}
+
+		throw new IOException("Malformed varint in binary game state");
+	}
+}
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.List;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+
+/**
+ * JsonWriter that streams a compact binary representation instead of JSON
+ * text. It can be set in a {@link com.badlogic.gdx.utils.Json} instance, so
+ * the existing 'Serializable.write()' implementations are used without
+ * changes. The output is read with {@link BinaryJsonReader}.
+ *
+ * Format: magic, version and a token stream. Every token starts with a tag
+ * byte. Objects and arrays end with an END tag. Numbers are stored as varints
+ * or floats and strings are length prefixed UTF-8. Short strings (names, ids)
+ * are written once and referenced by index after that.
+ *
+ * @author rgarcia
+ */
+public class BinaryJsonWriter extends JsonWriter {
+	public static final int MAGIC = 0x424C4753; // "BLGS"
+	public static final int VERSION = 1;
+
+	static final int NULL = 0;
+	static final int TRUE = 1;
+	static final int FALSE = 2;
+	static final int INT = 3;
+	static final int FLOAT = 4;
+	static final int DOUBLE = 5;
+	static final int STRING = 6;
+	static final int STRING_DEF = 7;
+	static final int STRING_REF = 8;
+	static final int OBJECT = 9;
+	static final int ARRAY = 10;
+	static final int END = 11;
+
+	/** Longer strings are not added to the string table */
+	static final int MAX_INTERN_LENGTH = 64;
+
+	private final DataOutputStream out;
+	private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+	/** The shared string table. Null if the table is written in the stream */
+	private final List<String> stringTable;
+
+	public BinaryJsonWriter(OutputStream out) throws IOException {
+		super(new StringWriter());
+
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.stringTable = null;
+
+		this.out.writeInt(MAGIC);
+		this.out.writeByte(VERSION);
+	}
+
+	/**
+	 * Writes the token stream without header, referencing the strings in a
+	 * table stored elsewhere. The strings not in the table are added to it and
+	 * written in the stream.
+	 */
+	public BinaryJsonWriter(OutputStream out, List<String> stringTable) {
+		super(new StringWriter());
+
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.stringTable = stringTable;
+
+		for (int i = 0; i < stringTable.size(); i++)
+			strings.put(stringTable.get(i), i);
+	}
+
+	/**
+	 * @return the bytes written so far.
+	 */
+	public int size() {
+		return out.size();
+	}
+
+	@Override
+	public JsonWriter name(String name) throws IOException {
+		writeString(name);
+		return this;
+	}
+
+	@Override
+	public JsonWriter object() throws IOException {
+		out.writeByte(OBJECT);
+		return this;
+	}
+
+	@Override
+	public JsonWriter array() throws IOException {
+		out.writeByte(ARRAY);
+		return this;
+	}
+
+	@Override
+	public JsonWriter object(String name) throws IOException {
+		return name(name).object();
+	}
+
+	@Override
+	public JsonWriter array(String name) throws IOException {
+		return name(name).array();
+	}
+
+	@Override
+	public JsonWriter set(String name, Object value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter value(Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Number) {
+			out.writeByte(INT);
+			writeVarLong(((Number) value).longValue());
+		} else {
+			writeString(value.toString());
+		}
+
+		return this;
+	}
+
+	/**
+	 * Raw JSON text is parsed and stored in binary.
+	 */
+	@Override
+	public JsonWriter json(String json) throws IOException {
+		writeTree(new JsonReader().parse(json));
+		return this;
+	}
+
+	@Override
+	public JsonWriter json(String name, String json) throws IOException {
+		return name(name).json(json);
+	}
+
+	@Override
+	public JsonWriter pop() throws IOException {
+		out.writeByte(END);
+		return this;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		throw new IOException("BinaryJsonWriter doesn't accept text");
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Writes a parsed JSON value.
+	 */
+	public void writeTree(JsonValue v) throws IOException {
+		switch (v.type()) {
+		case object:
+			object();
+
+			for (JsonValue c = v.child; c != null; c = c.next) {
+				name(c.name);
+				writeTree(c);
+			}
+
+			pop();
+			break;
+		case array:
+			array();
+
+			for (JsonValue c = v.child; c != null; c = c.next)
+				writeTree(c);
+
+			pop();
+			break;
+		case stringValue:
+			writeString(v.asString());
+			break;
+		case doubleValue:
+			value(v.asDouble());
+			break;
+		case longValue:
+			value(v.asLong());
+			break;
+		case booleanValue:
+			value(v.asBoolean());
+			break;
+		default:
+			value(null);
+		}
+	}
+
+	private void writeString(String s) throws IOException {
+		if (s.length() > MAX_INTERN_LENGTH) {
+			out.writeByte(STRING);
+			writeUTF8(s);
+			return;
+		}
+
+		Integer idx = strings.get(s);
+
+		if (idx != null) {
+			out.writeByte(STRING_REF);
+			writeVarInt(idx);
+		} else {
+			strings.put(s, strings.size());
+
+			if (stringTable != null)
+				stringTable.add(s);
+
+			out.writeByte(STRING_DEF);
+			writeUTF8(s);
+		}
+	}
+
+	private void writeUTF8(String s) throws IOException {
+		byte[] bytes = s.getBytes("UTF-8");
+
+		writeVarInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeVarInt(int v) throws IOException {
+		while ((v & ~0x7F) != 0) {
+			out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+
+		out.writeByte(v);
+	}
+
+	/** ZigZag encoded, so small negative numbers are also short */
+	private void writeVarLong(long v) throws IOException {
+		v = (v << 1) ^ (v >> 63);
+
+		while ((v & ~0x7FL) != 0) {
+			out.writeByte((int) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+
+		out.writeByte((int) v);
+	}
+}
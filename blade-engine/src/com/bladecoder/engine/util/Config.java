@@ -38,10 +38,17 @@ public class Config {
 	public static final String UI_MODE = "ui_mode";
 	public static final String FAST_LEAVE = "fast_leave";
 	public static final String AUTO_HIDE_TEXTS = "auto_hide_texts";
+	public static final String INDEXED_PATHFINDER_PROP = "indexed_pathfinder";
+	public static final String PATH_CACHE_SIZE_PROP = "path_cache_size";
+	public static final String PREFETCH_BUDGET_PROP = "prefetch_budget";
+	public static final String SCENE_CACHE_BUDGET_PROP = "scene_cache_budget";
+	public static final String BINARY_GAMESTATE_PROP = "binary_gamestate";
+	public static final String DELTA_GAMESTATE_PROP = "delta_gamestate";
+	public static final String LAZY_CHAPTER_PROP = "lazy_chapter";
 
 	public static final String PROPERTIES_FILENAME = "BladeEngine.properties";
 
-	private static Properties config = null;
+	private static volatile Properties config = null;
 	
 	public static String getProperty(String key, String defaultValue) {
 		if(config == null) {
@@ -52,13 +59,16 @@ public class Config {
 	}
 	
 	public static void load() {
-		config = new Properties();
+		// Assigned when loaded, other threads can be reading the properties
+		Properties p = new Properties();
 		
 		try {
-			config.load(EngineAssetManager.getInstance().getAsset(PROPERTIES_FILENAME).reader());
+			p.load(EngineAssetManager.getInstance().getAsset(PROPERTIES_FILENAME).reader());
 		} catch (Exception e) {
 			EngineLogger.error("ERROR LOADING PROPERTIES: " + e.getMessage());
 		}
+		
+		config = p;
 	}
 	
 	public static boolean getProperty(String key, boolean defaultValue) {
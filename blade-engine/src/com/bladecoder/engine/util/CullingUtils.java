@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Math to discard the sprites outside the camera view. Only plain math, so it
+ * can be used and tested without a GL context.
+ */
+public class CullingUtils {
+
+	/**
+	 * Calculates the world rectangle seen by the camera for a layer with the
+	 * given parallax factor. Mirrors SceneCamera.calculateParallaxMatrix().
+	 */
+	public static Rectangle getParallaxViewRect(float camX, float camY, float viewportWidth, float viewportHeight,
+			float zoom, float scrollingWidth, float parallaxX, float parallaxY, Rectangle out) {
+		float x = (camX - scrollingWidth / 2) * parallaxX + scrollingWidth / 2;
+		float y = camY * parallaxY;
+		float w = viewportWidth * zoom;
+		float h = viewportHeight * zoom;
+
+		return out.set(x - w / 2, y - h / 2, w, h);
+	}
+
+	/**
+	 * Calculates the bounds of a sprite drawn with its origin in the bottom
+	 * center, as the atlas and image renderers do. When rotated, the bounds
+	 * are the square containing the sprite in any rotation.
+	 */
+	public static Rectangle getSpriteBounds(float x, float y, float width, float height, float scale,
+			float rotation, Rectangle out) {
+		float w = width * Math.abs(scale);
+		float h = height * Math.abs(scale);
+
+		if (rotation == 0)
+			return out.set(x - w / 2, y, w, h);
+
+		float r = (float) Math.sqrt(w * w / 4 + h * h);
+
+		return out.set(x - r, y - r, r * 2, r * 2);
+	}
+
+	/**
+	 * @return true if the rectangles overlap or touch.
+	 */
+	public static boolean isVisible(Rectangle view, Rectangle bounds) {
+		return bounds.x <= view.x + view.width && bounds.x + bounds.width >= view.x
+				&& bounds.y <= view.y + view.height && bounds.y + bounds.height >= view.y;
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.util.HashMap;
+
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.World;
+
+/**
+ * Holds an independent copy of the engine singletons: the World, the asset
+ * manager, the serialization mode, the callback queue and the translations.
+ *
+ * When a context is bound to a thread, the getInstance() methods of the
+ * singletons return the context instances in that thread, so several games
+ * can run in the same JVM, one per thread. When no context is bound, the
+ * global instances are used as always.
+ *
+ * The game must be updated only from the thread where the context is bound.
+ *
+ * @author rgarcia
+ */
+public class EngineContext {
+	private static final ThreadLocal<EngineContext> current = new ThreadLocal<EngineContext>();
+
+	private final HashMap<Class<?>, Object> instances = new HashMap<Class<?>, Object>();
+
+	/**
+	 * @return the context bound to the calling thread or null if the global
+	 *         instances are used.
+	 */
+	public static EngineContext current() {
+		return current.get();
+	}
+
+	/**
+	 * Binds the context to the calling thread.
+	 */
+	public void bind() {
+		current.set(this);
+	}
+
+	/**
+	 * Unbinds the context of the calling thread. The global instances are used
+	 * after this call.
+	 */
+	public static void unbind() {
+		current.remove();
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(Class<T> clazz) {
+		return (T) instances.get(clazz);
+	}
+
+	public <T> void put(Class<T> clazz, T instance) {
+		instances.put(clazz, instance);
+	}
+
+	/**
+	 * Disposes the world and the assets of the context. Must be called from
+	 * the thread where the context is bound.
+	 */
+	public void dispose() {
+		World w = get(World.class);
+
+		if (w != null)
+			w.dispose();
+
+		EngineAssetManager am = get(EngineAssetManager.class);
+
+		if (am != null)
+			am.dispose();
+
+		RectangleRenderer.dispose();
+
+		instances.clear();
+	}
+}
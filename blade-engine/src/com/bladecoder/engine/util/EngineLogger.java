@@ -40,6 +40,10 @@ public class EngineLogger {
 		Gdx.app.debug(TAG, message);
 	}
 
+	public static void info(String message) {
+		Gdx.app.log(TAG, message);
+	}
+
 	public static void error(String message) {
 		if(message != null) {
 			Gdx.app.error(TAG, message);
@@ -0,0 +1,385 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import com.badlogic.gdx.math.Polygon;
+
+/**
+ * Uniform grid of the polygon edges to speed up line of sight and point inside
+ * queries in big polygons. Only the edges in the cells near the query are
+ * checked.
+ *
+ * The index is built from the polygon transformed vertices. It is rebuilt
+ * automatically when the polygon position, origin, scale, rotation or
+ * vertices array change. Vertices modified in place must be followed by a
+ * {@link #rebuild()} call.
+ *
+ * This class is not thread safe.
+ *
+ * @author rgarcia
+ */
+public class PolygonEdgeIndex {
+	/** Below this number of edges, queries are done directly over the polygon. */
+	private static final int MIN_INDEXED_EDGES = 16;
+
+	/**
+	 * Margin around the edges to include the points affected by the
+	 * PolygonUtils tolerance.
+	 */
+	private static final float MARGIN = 1f;
+
+	private final Polygon polygon;
+
+	/** The polygon state when the index was built */
+	private float localVerts[];
+	private float polyX, polyY, polyOriginX, polyOriginY, polyScaleX, polyScaleY, polyRotation;
+
+	private float verts[];
+	private int numEdges;
+
+	private float minX, minY, maxX, maxY;
+	private float cellSize;
+	private int cols, rows;
+
+	/** CSR storage: edges for cell c are in cellEdges[cellStart[c]..cellStart[c + 1]) */
+	private int cellStart[];
+	private int cellEdges[];
+
+	/** Avoid checking an edge several times when it is in several cells. */
+	private int edgeMark[];
+	private int mark;
+
+	public PolygonEdgeIndex(Polygon polygon) {
+		this.polygon = polygon;
+		rebuild();
+	}
+
+	public Polygon getPolygon() {
+		return polygon;
+	}
+
+	/**
+	 * @return true if the polygon has been moved, scaled, rotated or its
+	 *         vertices replaced since the index was built.
+	 */
+	public boolean isStale() {
+		return localVerts != polygon.getVertices() || polyX != polygon.getX() || polyY != polygon.getY()
+				|| polyOriginX != polygon.getOriginX() || polyOriginY != polygon.getOriginY()
+				|| polyScaleX != polygon.getScaleX() || polyScaleY != polygon.getScaleY()
+				|| polyRotation != polygon.getRotation();
+	}
+
+	/**
+	 * Rebuilds the index if the polygon transform has changed.
+	 * 
+	 * @return true if the index was rebuilt.
+	 */
+	public boolean update() {
+		if (!isStale())
+			return false;
+
+		rebuild();
+
+		return true;
+	}
+
+	/**
+	 * Recalculates the grid from the polygon transformed vertices.
+	 */
+	public void rebuild() {
+		localVerts = polygon.getVertices();
+		polyX = polygon.getX();
+		polyY = polygon.getY();
+		polyOriginX = polygon.getOriginX();
+		polyOriginY = polygon.getOriginY();
+		polyScaleX = polygon.getScaleX();
+		polyScaleY = polygon.getScaleY();
+		polyRotation = polygon.getRotation();
+
+		verts = polygon.getTransformedVertices();
+		numEdges = verts.length / 2;
+
+		minX = minY = Float.MAX_VALUE;
+		maxX = maxY = -Float.MAX_VALUE;
+
+		for (int i = 0; i < verts.length; i += 2) {
+			minX = Math.min(minX, verts[i]);
+			maxX = Math.max(maxX, verts[i]);
+			minY = Math.min(minY, verts[i + 1]);
+			maxY = Math.max(maxY, verts[i + 1]);
+		}
+
+		minX -= MARGIN;
+		minY -= MARGIN;
+		maxX += MARGIN;
+		maxY += MARGIN;
+
+		if (numEdges < MIN_INDEXED_EDGES) {
+			cellStart = null;
+			cellEdges = null;
+			edgeMark = null;
+			return;
+		}
+
+		// aprox. one edge per cell
+		float w = maxX - minX;
+		float h = maxY - minY;
+		cellSize = Math.max((float) Math.sqrt(w * h / numEdges), 1f);
+		cols = (int) (w / cellSize) + 1;
+		rows = (int) (h / cellSize) + 1;
+
+		cellStart = new int[cols * rows + 1];
+		edgeMark = new int[numEdges];
+		mark = 0;
+
+		// 1. count the edges in every cell
+		for (int e = 0; e < numEdges; e++) {
+			int c0 = cellX(edgeMinX(e)), c1 = cellX(edgeMaxX(e));
+			int r0 = cellY(edgeMinY(e)), r1 = cellY(edgeMaxY(e));
+
+			for (int r = r0; r <= r1; r++)
+				for (int c = c0; c <= c1; c++)
+					cellStart[r * cols + c + 1]++;
+		}
+
+		for (int i = 0; i < cols * rows; i++)
+			cellStart[i + 1] += cellStart[i];
+
+		// 2. fill the cells
+		cellEdges = new int[cellStart[cols * rows]];
+		int fill[] = new int[cols * rows];
+
+		for (int e = 0; e < numEdges; e++) {
+			int c0 = cellX(edgeMinX(e)), c1 = cellX(edgeMaxX(e));
+			int r0 = cellY(edgeMinY(e)), r1 = cellY(edgeMaxY(e));
+
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					int cell = r * cols + c;
+					cellEdges[cellStart[cell] + fill[cell]++] = e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Same as {@link PolygonUtils#isPointInside(Polygon, float, float, boolean)}
+	 * but only checking the edges near the point.
+	 */
+	public boolean isPointInside(float x, float y, boolean toleranceOnOutside) {
+		update();
+
+		if (cellStart == null)
+			return PolygonUtils.isPointInside(polygon, x, y, toleranceOnOutside);
+
+		if (x < minX || x > maxX || y < minY || y > maxY)
+			return false;
+
+		// 1. Tolerance: Points near an edge.
+		nextMark();
+
+		int c0 = cellX(x - MARGIN), c1 = cellX(x + MARGIN);
+		int r0 = cellY(y - MARGIN), r1 = cellY(y + MARGIN);
+
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int cell = r * cols + c;
+
+				for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+					int e = cellEdges[i];
+
+					if (edgeMark[e] == mark)
+						continue;
+
+					edgeMark[e] = mark;
+
+					int o = e * 2;
+					int n = (o + 2) % verts.length;
+
+					if (PolygonUtils.isPointInSegmentTolerance(x, y, verts[o], verts[o + 1], verts[n], verts[n + 1]))
+						return toleranceOnOutside;
+				}
+			}
+		}
+
+		// 2. Count the crossed edges over the point.
+		nextMark();
+
+		boolean inside = false;
+		int c = cellX(x);
+
+		for (int r = cellY(y); r < rows; r++) {
+			int cell = r * cols + c;
+
+			for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+				int e = cellEdges[i];
+
+				if (edgeMark[e] == mark)
+					continue;
+
+				edgeMark[e] = mark;
+
+				int o = e * 2;
+				int n = (o + 2) % verts.length;
+
+				float leftX = verts[o];
+				float leftY = verts[o + 1];
+				float rightX = verts[n];
+				float rightY = verts[n + 1];
+
+				if (leftX > rightX) {
+					leftX = verts[n];
+					leftY = verts[n + 1];
+					rightX = verts[o];
+					rightY = verts[o + 1];
+				}
+
+				if (leftX < x && x <= rightX && (y - leftY) * (rightX - leftX) < (rightY - leftY) * (x - leftX))
+					inside = !inside;
+			}
+		}
+
+		return inside;
+	}
+
+	/**
+	 * Same as
+	 * {@link PolygonUtils#inLineOfSight(com.badlogic.gdx.math.Vector2, com.badlogic.gdx.math.Vector2, Polygon, boolean)}
+	 * but only checking the edges in the cells crossed by the segment.
+	 */
+	public boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y, boolean obstacle) {
+		update();
+
+		// Segments outside the obstacle bounds can not be blocked by it.
+		if (obstacle && (Math.max(p1X, p2X) < minX || Math.min(p1X, p2X) > maxX || Math.max(p1Y, p2Y) < minY
+				|| Math.min(p1Y, p2Y) > maxY))
+			return true;
+
+		if (segmentCrossesEdges(p1X, p1Y, p2X, p2Y))
+			return false;
+
+		boolean result = isPointInside((p1X + p2X) / 2, (p1Y + p2Y) / 2, !obstacle);
+
+		return obstacle ? !result : result;
+	}
+
+	/**
+	 * @return true if the segment crosses some polygon edge.
+	 */
+	public boolean segmentCrossesEdges(float p1X, float p1Y, float p2X, float p2Y) {
+		update();
+
+		if (cellStart == null) {
+			for (int i = 0; i < verts.length; i += 2) {
+				if (PolygonUtils.lineSegmentsCross(p1X, p1Y, p2X, p2Y, verts[i], verts[i + 1],
+						verts[(i + 2) % verts.length], verts[(i + 3) % verts.length]))
+					return true;
+			}
+
+			return false;
+		}
+
+		float sMinX = Math.max(Math.min(p1X, p2X), minX);
+		float sMaxX = Math.min(Math.max(p1X, p2X), maxX);
+
+		if (sMinX > sMaxX || Math.max(p1Y, p2Y) < minY || Math.min(p1Y, p2Y) > maxY)
+			return false;
+
+		nextMark();
+
+		float dx = p2X - p1X;
+		float epsilon = cellSize * 0.001f;
+
+		int c0 = cellX(sMinX), c1 = cellX(sMaxX);
+
+		// walk the columns crossed by the segment and, for every column, the
+		// rows between the segment 'y' at the column borders.
+		for (int c = c0; c <= c1; c++) {
+			float ya, yb;
+
+			if (dx == 0) {
+				ya = p1Y;
+				yb = p2Y;
+			} else {
+				float xa = Math.max(minX + c * cellSize, sMinX);
+				float xb = Math.min(minX + (c + 1) * cellSize, sMaxX);
+
+				ya = p1Y + (xa - p1X) * (p2Y - p1Y) / dx;
+				yb = p1Y + (xb - p1X) * (p2Y - p1Y) / dx;
+			}
+
+			int r0 = cellY(Math.min(ya, yb) - epsilon);
+			int r1 = cellY(Math.max(ya, yb) + epsilon);
+
+			for (int r = r0; r <= r1; r++) {
+				int cell = r * cols + c;
+
+				for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+					int e = cellEdges[i];
+
+					if (edgeMark[e] == mark)
+						continue;
+
+					edgeMark[e] = mark;
+
+					int o = e * 2;
+					int n = (o + 2) % verts.length;
+
+					if (PolygonUtils.lineSegmentsCross(p1X, p1Y, p2X, p2Y, verts[o], verts[o + 1], verts[n],
+							verts[n + 1]))
+						return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private void nextMark() {
+		mark++;
+
+		if (mark == Integer.MAX_VALUE) {
+			mark = 1;
+
+			for (int i = 0; i < edgeMark.length; i++)
+				edgeMark[i] = 0;
+		}
+	}
+
+	private int cellX(float x) {
+		return Math.min(Math.max((int) ((x - minX) / cellSize), 0), cols - 1);
+	}
+
+	private int cellY(float y) {
+		return Math.min(Math.max((int) ((y - minY) / cellSize), 0), rows - 1);
+	}
+
+	private float edgeMinX(int e) {
+		return Math.min(verts[e * 2], verts[(e * 2 + 2) % verts.length]);
+	}
+
+	private float edgeMaxX(int e) {
+		return Math.max(verts[e * 2], verts[(e * 2 + 2) % verts.length]);
+	}
+
+	private float edgeMinY(int e) {
+		return Math.min(verts[e * 2 + 1], verts[(e * 2 + 3) % verts.length]);
+	}
+
+	private float edgeMaxY(int e) {
+		return Math.max(verts[e * 2 + 1], verts[(e * 2 + 3) % verts.length]);
+	}
+}
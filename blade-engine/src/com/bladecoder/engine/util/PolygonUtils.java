@@ -15,12 +15,10 @@
  ******************************************************************************/
 package com.bladecoder.engine.util;
 
-import com.badlogic.gdx.math.Intersector;
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Vector2;
 
 public class PolygonUtils {
-	private static final Vector2 tmp = new Vector2();
 	private static final Vector2 tmp2 = new Vector2();
 
 	public static void addPoint(Polygon poly, float x, float y, int index) {
@@ -102,25 +100,41 @@ public class PolygonUtils {
 	 */
 	public static int getClampedPoint(Polygon poly, float x, float y,
 			Vector2 dest) {
+		// Only local variables are used here because this method is called
+		// from the PathfindingService worker threads.
 		float verts[] = poly.getTransformedVertices();
-		float dTmp;
-
-		Intersector.nearestSegmentPoint(verts[0], verts[1], verts[2], verts[3],
-				x, y, dest);
-
+		float d = Float.MAX_VALUE;
 		int nearest = 0;
-		float d = Vector2.dst(x, y, dest.x, dest.y);
 
-		for (int i = 2; i < verts.length; i += 2) {
-			Intersector.nearestSegmentPoint(verts[i], verts[i + 1],
-					verts[(i + 2) % verts.length],
-					verts[(i + 3) % verts.length], x, y, tmp);
-			dTmp = Vector2.dst(x, y, tmp.x, tmp.y);
+		for (int i = 0; i < verts.length; i += 2) {
+			float x1 = verts[i];
+			float y1 = verts[i + 1];
+			float x2 = verts[(i + 2) % verts.length];
+			float y2 = verts[(i + 3) % verts.length];
+
+			// nearest segment point
+			float nx = x1;
+			float ny = y1;
+			float length2 = Vector2.dst2(x1, y1, x2, y2);
+
+			if (length2 != 0) {
+				float t = ((x - x1) * (x2 - x1) + (y - y1) * (y2 - y1)) / length2;
+
+				if (t > 1) {
+					nx = x2;
+					ny = y2;
+				} else if (t >= 0) {
+					nx = x1 + t * (x2 - x1);
+					ny = y1 + t * (y2 - y1);
+				}
+			}
+
+			float dTmp = Vector2.dst(x, y, nx, ny);
 
 			if (dTmp < d) {
 				d = dTmp;
 				nearest = i;
-				dest.set(tmp);
+				dest.set(nx, ny);
 			}
 		}
 		
@@ -130,19 +144,15 @@ public class PolygonUtils {
 		if (!PolygonUtils.isPointInside(poly, dest.x, dest.y, true)) {
 			EngineLogger.debug("> PolygonalPathFinder: CLAMPED FAILED!!");
 			
-			tmp.set(verts[0], verts[1]);
-			d = Vector2.dst(x, y, tmp.x, tmp.y);
-			nearest = 0;
-			dest.set(tmp);
+			d = Float.MAX_VALUE;
 			
-			for (int i = 2; i < verts.length; i += 2) {
-				tmp.set(verts[i], verts[i + 1]);
-				dTmp = Vector2.dst(x, y, tmp.x, tmp.y);
+			for (int i = 0; i < verts.length; i += 2) {
+				float dTmp = Vector2.dst(x, y, verts[i], verts[i + 1]);
 
 				if (dTmp < d) {
 					d = dTmp;
 					nearest = i;
-					dest.set(tmp);
+					dest.set(verts[i], verts[i + 1]);
 				}
 			}
 		}
@@ -202,8 +212,7 @@ public class PolygonUtils {
 			float newY = verts[i + 1];
 			float newSqDist = Vector2.dst2(newX, newY, x, y);
 
-			if (oldSqDist + newSqDist + 2.0f * Math.sqrt(oldSqDist * newSqDist)
-					- Vector2.dst2(newX, newY, oldX, oldY) < TOLERANCE_IS_POINT_INSIDE)
+			if (isPointInSegmentTolerance(oldSqDist, newSqDist, oldX, oldY, newX, newY))
 				return toleranceOnOutside;
 
 			float leftX = newX;
@@ -232,24 +241,32 @@ public class PolygonUtils {
 		return inside;
 	}
 
-	public static boolean inLineOfSight(Vector2 p1, Vector2 p2, Polygon polygon, boolean obstacle) {
-		tmp.set(p1);
-		tmp2.set(p2);
+	/**
+	 * Returns true if the point is in the segment with
+	 * TOLERANCE_IS_POINT_INSIDE.
+	 */
+	static boolean isPointInSegmentTolerance(float x, float y, float x1, float y1, float x2, float y2) {
+		return isPointInSegmentTolerance(Vector2.dst2(x1, y1, x, y), Vector2.dst2(x2, y2, x, y), x1, y1, x2, y2);
+	}
 
+	private static boolean isPointInSegmentTolerance(float sqDist1, float sqDist2, float x1, float y1, float x2,
+			float y2) {
+		return sqDist1 + sqDist2 + 2.0f * Math.sqrt(sqDist1 * sqDist2)
+				- Vector2.dst2(x2, y2, x1, y1) < TOLERANCE_IS_POINT_INSIDE;
+	}
+
+	public static boolean inLineOfSight(Vector2 p1, Vector2 p2, Polygon polygon, boolean obstacle) {
+		// No shared temp vectors, the line of sight is tested from several threads
 		float verts[] = polygon.getTransformedVertices();
 
 		for (int i = 0; i < verts.length; i += 2) {
-			if (lineSegmentsCross(tmp.x, tmp.y, tmp2.x, tmp2.y, verts[i],
+			if (lineSegmentsCross(p1.x, p1.y, p2.x, p2.y, verts[i],
 					verts[i + 1], verts[(i + 2) % verts.length], verts[(i + 3)
 							% verts.length]))
 				return false;
 		}
 
-		tmp.add(tmp2);
-		tmp.x /= 2;
-		tmp.y /= 2;
-		
-		boolean result = PolygonUtils.isPointInside(polygon, tmp.x, tmp.y, !obstacle);
+		boolean result = PolygonUtils.isPointInside(polygon, (p1.x + p2.x) / 2, (p1.y + p2.y) / 2, !obstacle);
 		
 		return obstacle?!result:result;
 	}
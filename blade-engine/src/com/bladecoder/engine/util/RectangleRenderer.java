@@ -21,7 +21,28 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 
 public final class RectangleRenderer {
-	private static Texture texture;
+	/** The pixel texture. One per engine context. */
+	private static class Pixel {
+		Texture texture;
+	}
+
+	private static final Pixel globalPixel = new Pixel();
+
+	private static Pixel pixel() {
+		EngineContext ctx = EngineContext.current();
+
+		if (ctx == null)
+			return globalPixel;
+
+		Pixel p = ctx.get(Pixel.class);
+
+		if (p == null) {
+			p = new Pixel();
+			ctx.put(Pixel.class, p);
+		}
+
+		return p;
+	}
 
 	private static Texture makePixel() {
 		Texture _temp;
@@ -36,19 +57,23 @@ public final class RectangleRenderer {
 	public static void draw(Batch batch, float posX, float posY,
 			float width, float height, Color color) {
 		
-		if(texture == null) texture = makePixel();
+		Pixel pixel = pixel();
+
+		if(pixel.texture == null) pixel.texture = makePixel();
 		
 		Color tmp = batch.getColor();
 		batch.setColor(color);
-		batch.draw(texture, posX, posY, 0,
+		batch.draw(pixel.texture, posX, posY, 0,
 				0, width, height, 1, 1, 0, 0, 0, 1, 1, false, false);
 		
 		batch.setColor(tmp);
 	}
 	
 	public static void dispose() {
-		if(texture!=null) texture.dispose();
-		texture = null;
+		Pixel pixel = pixel();
+
+		if(pixel.texture!=null) pixel.texture.dispose();
+		pixel.texture = null;
 	}
 
 }
@@ -15,6 +15,19 @@ public class SerializationHelper {
 	}
 
 	public static SerializationHelper getInstance() {
+		EngineContext ctx = EngineContext.current();
+
+		if (ctx != null) {
+			SerializationHelper h = ctx.get(SerializationHelper.class);
+
+			if (h == null) {
+				h = new SerializationHelper();
+				ctx.put(SerializationHelper.class, h);
+			}
+
+			return h;
+		}
+
 		if (instance == null)
 			instance = new SerializationHelper();
 
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.model.BaseActor;
+
+/**
+ * Checks that the {@link PolygonalNavGraph#findPath(float, float, float, float, FloatArray)}
+ * overload doesn't allocate once the internal structures have grown.
+ *
+ * @author rgarcia
+ */
+public class PolygonalNavGraphTest {
+	private static final int CALLS = 10000;
+
+	/**
+	 * Reading the allocated bytes can allocate a few bytes itself, but one
+	 * allocation per call is more than this.
+	 */
+	private static final long MAX_ALLOCATED_BYTES = 1024;
+
+	private static final float POINTS[] = { 50, 50, 950, 50, 950, 950, 50, 950, 300, 100, 100, 300, 700, 500,
+			300, 700 };
+
+	private static com.sun.management.ThreadMXBean threadBean;
+
+	private PolygonalNavGraph graph;
+	private final FloatArray out = new FloatArray();
+
+	@BeforeClass
+	public static void init() {
+		// the engine logs and reads the config through Gdx.app and Gdx.files
+		new HeadlessApplication(new ApplicationAdapter() {
+		});
+
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)
+			threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	}
+
+	@AfterClass
+	public static void dispose() {
+		Gdx.app.exit();
+	}
+
+	@Before
+	public void createGraph() {
+		Assume.assumeTrue(threadBean != null && threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		graph = new PolygonalNavGraph();
+
+		// a walkzone with a concave notch in the top border
+		graph.setWalkZone(new Polygon(new float[] { 0, 0, 1000, 0, 1000, 1000, 600, 1000, 500, 600, 400, 1000, 0,
+				1000 }));
+		graph.createInitialGraph(new ArrayList<BaseActor>());
+
+		graph.addDinamicObstacle(new Polygon(new float[] { 200, 200, 400, 200, 400, 400, 200, 400 }));
+	}
+
+	@Test
+	public void testFindPathCachedDoesNotAllocate() {
+		assertNoAllocation();
+	}
+
+	@Test
+	public void testFindPathSearchDoesNotAllocate() {
+		graph.setPathCacheSize(0);
+
+		assertNoAllocation();
+	}
+
+	private void assertNoAllocation() {
+		// grows the output array, the path cache and the search structures
+		findPaths(POINTS.length);
+
+		long threadId = Thread.currentThread().getId();
+		long start = threadBean.getThreadAllocatedBytes(threadId);
+
+		findPaths(CALLS);
+
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - start;
+
+		assertTrue("Allocated " + allocated + " bytes in " + CALLS + " calls", allocated <= MAX_ALLOCATED_BYTES);
+	}
+
+	private void findPaths(int calls) {
+		int n = POINTS.length / 2;
+
+		for (int i = 0; i < calls; i++) {
+			int s = i % n;
+			int t = (s + 3 + (i / n) % 2 * 2) % n;
+
+			assertTrue(graph.findPath(POINTS[s * 2], POINTS[s * 2 + 1], POINTS[t * 2], POINTS[t * 2 + 1], out));
+		}
+	}
+}
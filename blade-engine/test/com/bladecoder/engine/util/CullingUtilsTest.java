@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Rectangle;
+
+public class CullingUtilsTest {
+	private static final float EPSILON = 0.001f;
+
+	private final Rectangle rect = new Rectangle();
+
+	@Test
+	public void testParallaxViewRect() {
+		CullingUtils.getParallaxViewRect(500, 300, 800, 600, 1, 2000, 1, 1, rect);
+		assertRect(100, 0, 800, 600, rect);
+
+		// the layer moves half the camera distance from the scroll center
+		CullingUtils.getParallaxViewRect(500, 300, 800, 600, 1, 2000, 0.5f, 0.5f, rect);
+		assertRect(350, -150, 800, 600, rect);
+
+		CullingUtils.getParallaxViewRect(500, 300, 800, 600, 2, 2000, 1, 1, rect);
+		assertRect(-300, -300, 1600, 1200, rect);
+	}
+
+	@Test
+	public void testSpriteBounds() {
+		CullingUtils.getSpriteBounds(100, 50, 40, 80, 0.5f, 0, rect);
+		assertRect(90, 50, 20, 40, rect);
+
+		// flipped sprites use negative scales
+		CullingUtils.getSpriteBounds(100, 50, 40, 80, -0.5f, 0, rect);
+		assertRect(90, 50, 20, 40, rect);
+	}
+
+	@Test
+	public void testRotatedSpriteBoundsContainTheSprite() {
+		float x = 100, y = 50, w = 40, h = 80;
+
+		for (int rotation = 15; rotation < 360; rotation += 15) {
+			CullingUtils.getSpriteBounds(x, y, w, h, 1, rotation, rect);
+
+			float cos = (float) Math.cos(Math.toRadians(rotation));
+			float sin = (float) Math.sin(Math.toRadians(rotation));
+			float corners[] = { -w / 2, 0, w / 2, 0, w / 2, h, -w / 2, h };
+
+			for (int i = 0; i < corners.length; i += 2) {
+				float cx = x + corners[i] * cos - corners[i + 1] * sin;
+				float cy = y + corners[i] * sin + corners[i + 1] * cos;
+
+				assertTrue("Corner outside the bounds for rotation " + rotation,
+						cx >= rect.x - EPSILON && cx <= rect.x + rect.width + EPSILON && cy >= rect.y - EPSILON
+								&& cy <= rect.y + rect.height + EPSILON);
+			}
+		}
+	}
+
+	@Test
+	public void testIsVisible() {
+		Rectangle view = new Rectangle(0, 0, 800, 600);
+
+		assertTrue(CullingUtils.isVisible(view, new Rectangle(100, 100, 50, 50)));
+		assertTrue(CullingUtils.isVisible(view, new Rectangle(-40, -40, 50, 50)));
+		assertTrue(CullingUtils.isVisible(view, new Rectangle(800, 600, 50, 50)));
+
+		assertFalse(CullingUtils.isVisible(view, new Rectangle(801, 100, 50, 50)));
+		assertFalse(CullingUtils.isVisible(view, new Rectangle(100, -51, 50, 50)));
+	}
+
+	private static void assertRect(float x, float y, float width, float height, Rectangle r) {
+		assertEquals(x, r.x, EPSILON);
+		assertEquals(y, r.y, EPSILON);
+		assertEquals(width, r.width, EPSILON);
+		assertEquals(height, r.height, EPSILON);
+	}
+}